@@ -74,10 +74,12 @@ public class DefaultHttpClient implements HttpClient {
     private final Gson gson;
     private final String encoding;
     private final String contentType;
+    private final int timeout;
 
     private DefaultHttpClient(final Builder builder) {
         this.encoding = builder.encoding;
         this.contentType = builder.contentType;
+        this.timeout = builder.timeout;
         this.gson = new GsonBuilder()
                 .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
                 .create();
@@ -216,6 +218,10 @@ public class DefaultHttpClient implements HttpClient {
         try {
             httpUrlConnection = createHttpUrlConnection(url);
             httpUrlConnection.setRequestMethod(method);
+            if (timeout > 0) {
+                httpUrlConnection.setConnectTimeout(timeout);
+                httpUrlConnection.setReadTimeout(timeout);
+            }
 
             appendDefaultsToConnection(httpUrlConnection, additionalHeaders);
             modifyConnection(httpUrlConnection);
@@ -279,6 +285,7 @@ public class DefaultHttpClient implements HttpClient {
     public static class Builder {
         private String encoding = "UTF-8";
         private String contentType = "application/json";
+        private int timeout;
 
         /**
          * Default encoding for requests.
@@ -296,6 +303,19 @@ public class DefaultHttpClient implements HttpClient {
             return this;
         }
 
+        /**
+         * The timeout in milliseconds for connecting and for reading responses, defaults to 0, which never times
+         * out.
+         */
+        public Builder withTimeout(final int timeout) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("\"timeout\" cannot be negative.");
+            }
+
+            this.timeout = timeout;
+            return this;
+        }
+
         public DefaultHttpClient build() {
             return new DefaultHttpClient(this);
         }
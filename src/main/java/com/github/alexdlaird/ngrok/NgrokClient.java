@@ -30,9 +30,12 @@ import com.github.alexdlaird.http.HttpClient;
 import com.github.alexdlaird.http.HttpClientException;
 import com.github.alexdlaird.http.Response;
 import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.RestartPolicy;
 import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
 import com.github.alexdlaird.ngrok.installer.NgrokVersion;
 import com.github.alexdlaird.ngrok.process.NgrokProcess;
+import com.github.alexdlaird.ngrok.process.NgrokProcessRegistry;
+import com.github.alexdlaird.ngrok.process.TunnelRegistry;
 import com.github.alexdlaird.ngrok.protocol.BindTls;
 import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
 import com.github.alexdlaird.ngrok.protocol.Proto;
@@ -41,12 +44,17 @@ import com.github.alexdlaird.ngrok.protocol.Tunnels;
 import com.github.alexdlaird.ngrok.protocol.Version;
 
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -116,6 +124,22 @@ import static java.util.Objects.nonNull;
  * final List&lt;Tunnel&gt; tunnels = ngrokClient.getTunnels();
  * </pre>
  *
+ * <h2>Start Tunnels from the Config</h2>
+ * Tunnels defined in <code>ngrok</code>'s config can be started in the same launch as <code>ngrok</code> itself,
+ * by naming them with {@link JavaNgrokConfig.Builder#withStartTunnels(List)} (or
+ * {@link JavaNgrokConfig.Builder#withStartAllTunnels()}) and calling {@link NgrokClient#startConfigTunnels()},
+ * rather than creating each through the <code>ngrok</code> API.
+ * <p>
+ * <pre>
+ * final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+ *         .withStartTunnels(List.of("web", "ssh"))
+ *         .build();
+ * final NgrokClient ngrokClient = new NgrokClient.Builder()
+ *         .withJavaNgrokConfig(javaNgrokConfig)
+ *         .build();
+ * final List&lt;Tunnel&gt; tunnels = ngrokClient.startConfigTunnels();
+ * </pre>
+ *
  * <h2>Close a Tunnel</h2>
  * All open tunnels will automatically be closed when the Java process terminates, but we can also close them
  * manually with {@link NgrokClient#disconnect(String)}.
@@ -125,6 +149,25 @@ import static java.util.Objects.nonNull;
  * ngrokClient.disconnect(publicUrl);
  * </pre>
  *
+ * <h2>Share a Process Between Clients</h2>
+ * Clients built with the same {@link NgrokProcessRegistry} and <code>configPath</code> share one
+ * <code>ngrok</code> process and see each other's tunnels. Killing one client only releases its hold on the process,
+ * which keeps running until the last of them is killed. A shared process cannot be supervised.
+ * <p>
+ * <pre>
+ * final NgrokProcessRegistry ngrokProcessRegistry = new NgrokProcessRegistry();
+ * final NgrokClient ngrokClient = new NgrokClient.Builder()
+ *         .withJavaNgrokConfig(javaNgrokConfig)
+ *         .withNgrokProcessRegistry(ngrokProcessRegistry)
+ *         .build();
+ * </pre>
+ *
+ * <h2>Supervision</h2>
+ * A {@link RestartPolicy} can be given to {@link Builder#withRestartPolicy(RestartPolicy)} so the
+ * <code>ngrok</code> process is restarted if it exits unexpectedly or stops responding. Tunnels opened with
+ * {@link NgrokClient#connect(CreateTunnel) NgrokClient.connect()} are re-created after each restart, and their new
+ * public URLs are passed to {@link RestartPolicy.Builder#withTunnelsRestoredCallback}.
+ *
  * <h2>Integration Examples</h2>
  * <code>java-ngrok</code> is useful in any number of integrations, for instance to test locally without having to
  * deploy or configure. Here are some common usage examples.
@@ -147,12 +190,26 @@ public class NgrokClient {
     private final NgrokProcess ngrokProcess;
     private final HttpClient httpClient;
 
-    private final Map<String, Tunnel> currentTunnels = new HashMap<>();
+    private final NgrokSupervisor ngrokSupervisor;
+    private final NgrokProcessRegistry ngrokProcessRegistry;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private final Map<String, Tunnel> currentTunnels;
+    private final Map<String, CreateTunnel> tunnelDefinitions;
 
     private NgrokClient(final Builder builder) {
         this.javaNgrokConfig = builder.javaNgrokConfig;
         this.ngrokProcess = builder.ngrokProcess;
         this.httpClient = builder.httpClient;
+        this.ngrokProcessRegistry = builder.ngrokProcessRegistry;
+        this.currentTunnels = builder.tunnelRegistry.getCurrentTunnels();
+        this.tunnelDefinitions = builder.tunnelRegistry.getTunnelDefinitions();
+
+        if (nonNull(builder.restartPolicy)) {
+            this.ngrokSupervisor = new NgrokSupervisor(this, builder.restartPolicy);
+        } else {
+            this.ngrokSupervisor = null;
+        }
     }
 
     /**
@@ -179,37 +236,21 @@ public class NgrokClient {
      * @return The created Tunnel.
      */
     public Tunnel connect(final CreateTunnel createTunnel) {
+        ensureNotReleased();
         ngrokProcess.start();
+        ngrokProcess.awaitSession();
 
         final CreateTunnel finalTunnel = interpolateTunnelDefinition(createTunnel);
 
-        LOGGER.info(String.format("Opening tunnel named: %s", finalTunnel.getName()));
+        final Tunnel tunnel = createTunnel(finalTunnel);
 
-        final Response<Tunnel> response;
-        try {
-            response = httpClient.post(String.format("%s/api/tunnels", ngrokProcess.getApiUrl()), finalTunnel, Tunnel.class);
-        } catch (HttpClientException e) {
-            throw new JavaNgrokHTTPException(String.format("An error occurred when POSTing to create the tunnel %s.", finalTunnel.getName()),
-                    e, e.getUrl(), e.getStatusCode(), e.getBody());
-        }
+        currentTunnels.put(tunnel.getPublicUrl(), tunnel);
+        tunnelDefinitions.put(tunnel.getPublicUrl(), finalTunnel);
 
-        final Tunnel tunnel;
-        if (javaNgrokConfig.getNgrokVersion() == NgrokVersion.V2 &&
-                finalTunnel.getProto() == Proto.HTTP &&
-                finalTunnel.getBindTls() == BindTls.BOTH) {
-            try {
-                final Response<Tunnel> getResponse = httpClient.get(ngrokProcess.getApiUrl() + response.getBody().getUri() + "%20%28http%29", Tunnel.class);
-                tunnel = getResponse.getBody();
-            } catch (HttpClientException e) {
-                throw new JavaNgrokHTTPException(String.format("An error occurred when GETing the HTTP tunnel %s.", response.getBody().getName()),
-                        e, e.getUrl(), e.getStatusCode(), e.getBody());
-            }
-        } else {
-            tunnel = response.getBody();
+        if (nonNull(ngrokSupervisor)) {
+            ngrokSupervisor.watch();
         }
 
-        currentTunnels.put(tunnel.getPublicUrl(), tunnel);
-
         return tunnel;
     }
 
@@ -220,6 +261,30 @@ public class NgrokClient {
         return connect(new CreateTunnel.Builder().withNgrokVersion(javaNgrokConfig.getNgrokVersion()).build());
     }
 
+    /**
+     * Establish a new <code>ngrok</code> tunnel for the tunnel definition without blocking the calling thread.
+     * If <code>ngrok</code> is not running, it is started with {@link NgrokProcess#startAsync()}, and the tunnel
+     * is created once it is ready. If <code>ngrok</code> fails to start, the returned future completes
+     * exceptionally with the {@link com.github.alexdlaird.exception.NgrokException} describing why.
+     * <p>
+     * See {@link #connect(CreateTunnel)} for details about the tunnel definition.
+     *
+     * @param createTunnel The tunnel definition.
+     * @return A future for the created Tunnel.
+     */
+    public CompletableFuture<Tunnel> connectAsync(final CreateTunnel createTunnel) {
+        ensureNotReleased();
+
+        return ngrokProcess.startAsync().thenApplyAsync(ignored -> connect(createTunnel), javaNgrokConfig.getExecutor());
+    }
+
+    /**
+     * See {@link #connectAsync(CreateTunnel)}.
+     */
+    public CompletableFuture<Tunnel> connectAsync() {
+        return connectAsync(new CreateTunnel.Builder().withNgrokVersion(javaNgrokConfig.getNgrokVersion()).build());
+    }
+
     /**
      * Disconnect the <code>ngrok</code> tunnel for the given URL, if open.
      *
@@ -230,6 +295,7 @@ public class NgrokClient {
         if (!ngrokProcess.isRunning()) {
             return;
         }
+        ensureNotReleased();
 
         if (!currentTunnels.containsKey(publicUrl)) {
             getTunnels();
@@ -249,9 +315,14 @@ public class NgrokClient {
         try {
             httpClient.delete(ngrokProcess.getApiUrl() + tunnel.getUri());
         } catch (HttpClientException e) {
+            invalidateHealth();
+
             throw new JavaNgrokHTTPException(String.format("An error occurred when DELETing the tunnel %s.", publicUrl),
                     e, e.getUrl(), e.getStatusCode(), e.getBody());
         }
+
+        // Only forgotten once closed, so a tunnel that failed to close is still re-created after a restart
+        tunnelDefinitions.remove(publicUrl);
     }
 
     /**
@@ -263,23 +334,55 @@ public class NgrokClient {
      * @return The active <code>ngrok</code> tunnels.
      */
     public List<Tunnel> getTunnels() {
+        ensureNotReleased();
         ngrokProcess.start();
 
         try {
             final Response<Tunnels> response = httpClient.get(String.format("%s/api/tunnels", ngrokProcess.getApiUrl()), Tunnels.class);
 
-            currentTunnels.clear();
+            // Replaced in place, rather than cleared first, since other clients may share the current tunnels
+            final Map<String, Tunnel> tunnels = new HashMap<>();
             for (final Tunnel tunnel : response.getBody().getTunnels()) {
-                currentTunnels.put(tunnel.getPublicUrl(), tunnel);
+                tunnels.put(tunnel.getPublicUrl(), tunnel);
             }
+            currentTunnels.putAll(tunnels);
+            currentTunnels.keySet().retainAll(tunnels.keySet());
 
-            return new ArrayList<>(currentTunnels.values());
+            return new ArrayList<>(tunnels.values());
         } catch (HttpClientException e) {
+            invalidateHealth();
+
             throw new JavaNgrokHTTPException("An error occurred when GETing the tunnels.", e, e.getUrl(),
                     e.getStatusCode(), e.getBody());
         }
     }
 
+    /**
+     * Start <code>ngrok</code> along with the tunnels defined in its config that were selected with
+     * {@link JavaNgrokConfig.Builder#withStartTunnels(List)} or {@link JavaNgrokConfig.Builder#withStartAllTunnels()}.
+     * The tunnels are started by <code>ngrok</code> itself as it launches, and are confirmed with a single call to
+     * {@link #getTunnels()}, rather than each being created with a request to the <code>ngrok</code> API.
+     *
+     * @return The tunnels <code>ngrok</code> started from its config.
+     */
+    public List<Tunnel> startConfigTunnels() {
+        ensureNotReleased();
+        ngrokProcess.start();
+        ngrokProcess.awaitSession();
+
+        final List<Tunnel> tunnels = getTunnels();
+
+        final NgrokProcess.ProcessMonitor processMonitor = ngrokProcess.getProcessMonitor();
+        if (isNull(processMonitor) || processMonitor.getStartedTunnels().isEmpty()) {
+            return tunnels;
+        }
+
+        final Collection<String> startedPublicUrls = processMonitor.getStartedTunnels().values();
+        return tunnels.stream()
+                .filter(tunnel -> startedPublicUrls.contains(tunnel.getPublicUrl()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get the latest metrics for the given {@link Tunnel} and update its <code>metrics</code> attribute.
      *
@@ -296,13 +399,30 @@ public class NgrokClient {
     }
 
     /**
-     * Terminate the <code>ngrok</code> processes, if running. This method will not block, it will
-     * just issue a kill request.
+     * Terminate the <code>ngrok</code> processes, if running. This method blocks until the processes have exited
+     * and released their ports, killing them forcibly if they have not exited gracefully within
+     * {@link JavaNgrokConfig#getStopTimeout()}.
+     * <p>
+     * If the process was acquired from a {@link NgrokProcessRegistry}, this instead releases this client's hold on
+     * it, and the process and its tunnels are only stopped once every client sharing it has been killed.
      */
     public void kill() {
-        ngrokProcess.stop();
+        if (nonNull(ngrokSupervisor)) {
+            ngrokSupervisor.unwatch();
+        }
+
+        if (nonNull(ngrokProcessRegistry)) {
+            if (released.compareAndSet(false, true)) {
+                ngrokProcessRegistry.release(ngrokProcess);
+            }
+
+            return;
+        }
+
+        stopProcess();
 
         currentTunnels.clear();
+        tunnelDefinitions.clear();
     }
 
     /**
@@ -354,6 +474,110 @@ public class NgrokClient {
         return httpClient;
     }
 
+    /**
+     * Get the supervisor that restarts <code>ngrok</code> when it fails.
+     *
+     * @return The supervisor, or <code>null</code> if no {@link RestartPolicy} was given.
+     */
+    public NgrokSupervisor getNgrokSupervisor() {
+        return ngrokSupervisor;
+    }
+
+    /**
+     * Restart the <code>ngrok</code> process and re-create each tunnel that was opened with
+     * {@link #connect(CreateTunnel)}. Tunnels are only replaced in the current tunnels once all of them have
+     * been re-created, so a failed attempt can be retried with the original definitions. Tunnels that
+     * <code>ngrok</code> starts from its config are started again with the process, and are matched to their
+     * previous public URL by name.
+     *
+     * @return The re-created tunnels, keyed by their previous public URL.
+     */
+    Map<String, Tunnel> restoreTunnels() {
+        final Map<String, Tunnel> previousTunnels = new HashMap<>(currentTunnels);
+
+        // Wait for the old process to release the API port before starting its replacement
+        stopProcess();
+        ngrokProcess.start();
+        ngrokProcess.awaitSession();
+
+        final Map<String, Tunnel> restoredTunnels = new HashMap<>();
+        final Map<String, CreateTunnel> restoredDefinitions = new HashMap<>();
+        for (final Map.Entry<String, CreateTunnel> entry : tunnelDefinitions.entrySet()) {
+            final Tunnel tunnel = createTunnel(entry.getValue());
+
+            restoredTunnels.put(entry.getKey(), tunnel);
+            restoredDefinitions.put(tunnel.getPublicUrl(), entry.getValue());
+        }
+
+        // Re-queried, rather than rebuilt from the re-created tunnels, so tunnels started from config are kept
+        final List<Tunnel> tunnels = getTunnels();
+        for (final Map.Entry<String, Tunnel> entry : previousTunnels.entrySet()) {
+            if (restoredTunnels.containsKey(entry.getKey()) || isNull(entry.getValue().getName())) {
+                continue;
+            }
+
+            tunnels.stream()
+                    .filter(tunnel -> entry.getValue().getName().equals(tunnel.getName()))
+                    .filter(tunnel -> !restoredDefinitions.containsKey(tunnel.getPublicUrl()))
+                    .findFirst()
+                    .ifPresent(tunnel -> restoredTunnels.put(entry.getKey(), tunnel));
+        }
+        tunnelDefinitions.clear();
+        tunnelDefinitions.putAll(restoredDefinitions);
+
+        return restoredTunnels;
+    }
+
+    /**
+     * A process acquired from a {@link NgrokProcessRegistry} is no longer tracked by it once this client has
+     * released it, so it must not be started again, or it would never be stopped.
+     */
+    private void ensureNotReleased() {
+        if (released.get()) {
+            throw new IllegalStateException("This client has been killed and released its shared ngrok process.");
+        }
+    }
+
+    private Tunnel createTunnel(final CreateTunnel finalTunnel) {
+        LOGGER.info(String.format("Opening tunnel named: %s", finalTunnel.getName()));
+
+        final Response<Tunnel> response;
+        try {
+            response = httpClient.post(String.format("%s/api/tunnels", ngrokProcess.getApiUrl()), finalTunnel, Tunnel.class);
+        } catch (HttpClientException e) {
+            invalidateHealth();
+
+            throw new JavaNgrokHTTPException(String.format("An error occurred when POSTing to create the tunnel %s.", finalTunnel.getName()),
+                    e, e.getUrl(), e.getStatusCode(), e.getBody());
+        }
+
+        if (javaNgrokConfig.getNgrokVersion() == NgrokVersion.V2 &&
+                finalTunnel.getProto() == Proto.HTTP &&
+                finalTunnel.getBindTls() == BindTls.BOTH) {
+            try {
+                final Response<Tunnel> getResponse = httpClient.get(ngrokProcess.getApiUrl() + response.getBody().getUri() + "%20%28http%29", Tunnel.class);
+                return getResponse.getBody();
+            } catch (HttpClientException e) {
+                invalidateHealth();
+
+                throw new JavaNgrokHTTPException(String.format("An error occurred when GETing the HTTP tunnel %s.", response.getBody().getName()),
+                        e, e.getUrl(), e.getStatusCode(), e.getBody());
+            }
+        } else {
+            return response.getBody();
+        }
+    }
+
+    private void stopProcess() {
+        ngrokProcess.stopAsync(Duration.ofSeconds(javaNgrokConfig.getStopTimeout())).join();
+    }
+
+    private void invalidateHealth() {
+        if (nonNull(ngrokProcess.getProcessMonitor())) {
+            ngrokProcess.getProcessMonitor().invalidateHealth();
+        }
+    }
+
     private CreateTunnel interpolateTunnelDefinition(final CreateTunnel createTunnel) {
         final CreateTunnel.Builder createTunnelBuilder = new CreateTunnel.Builder(createTunnel);
 
@@ -389,6 +613,9 @@ public class NgrokClient {
         private NgrokInstaller ngrokInstaller;
         private NgrokProcess ngrokProcess;
         private HttpClient httpClient;
+        private RestartPolicy restartPolicy;
+        private NgrokProcessRegistry ngrokProcessRegistry;
+        private TunnelRegistry tunnelRegistry;
 
         /**
          * The <code>java-ngrok</code> to use when interacting with the <code>ngrok</code> binary.
@@ -423,6 +650,27 @@ public class NgrokClient {
             return this;
         }
 
+        /**
+         * Supervise the <code>ngrok</code> process, restarting it and re-creating open tunnels according to the
+         * given policy when it exits unexpectedly or stops responding. Supervision is disabled by default. Cannot be
+         * used with {@link #withNgrokProcessRegistry(NgrokProcessRegistry)}, since restarting a shared process would
+         * replace the tunnels of every client holding it.
+         */
+        public Builder withRestartPolicy(final RestartPolicy restartPolicy) {
+            this.restartPolicy = restartPolicy;
+            return this;
+        }
+
+        /**
+         * Share the <code>ngrok</code> process, and its tunnels, with other clients built with the same registry and
+         * <code>configPath</code>, rather than managing a process of its own. Cannot be used with
+         * {@link #withNgrokProcess(NgrokProcess)} or {@link #withRestartPolicy(RestartPolicy)}.
+         */
+        public Builder withNgrokProcessRegistry(final NgrokProcessRegistry ngrokProcessRegistry) {
+            this.ngrokProcessRegistry = ngrokProcessRegistry;
+            return this;
+        }
+
         public NgrokClient build() {
             if (isNull(javaNgrokConfig)) {
                 javaNgrokConfig = new JavaNgrokConfig.Builder().build();
@@ -430,6 +678,19 @@ public class NgrokClient {
             if (isNull(ngrokInstaller)) {
                 ngrokInstaller = new NgrokInstaller();
             }
+            if (nonNull(ngrokProcessRegistry)) {
+                if (nonNull(ngrokProcess)) {
+                    throw new IllegalArgumentException("\"ngrokProcess\" cannot be given with \"ngrokProcessRegistry\".");
+                }
+                if (nonNull(restartPolicy)) {
+                    throw new IllegalArgumentException("\"restartPolicy\" cannot be given with \"ngrokProcessRegistry\".");
+                }
+
+                ngrokProcess = ngrokProcessRegistry.acquire(javaNgrokConfig, ngrokInstaller);
+                tunnelRegistry = ngrokProcessRegistry.getTunnelRegistry(ngrokProcess);
+            } else {
+                tunnelRegistry = new TunnelRegistry();
+            }
             if (isNull(ngrokProcess)) {
                 ngrokProcess = new NgrokProcess(javaNgrokConfig, ngrokInstaller);
             }
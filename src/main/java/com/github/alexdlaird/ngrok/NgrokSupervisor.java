@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok;
+
+import com.github.alexdlaird.http.DefaultHttpClient;
+import com.github.alexdlaird.http.HttpClient;
+import com.github.alexdlaird.ngrok.conf.RestartPolicy;
+import com.github.alexdlaird.ngrok.process.NgrokProcess;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Supervises the <code>ngrok</code> process of a {@link NgrokClient} that was built with a {@link RestartPolicy},
+ * restarting it with exponential backoff when it exits unexpectedly or its API stalls, and re-creating the
+ * tunnels that were open. Supervision begins when a tunnel is opened and ends when
+ * {@link NgrokClient#kill()} is called.
+ * <p>
+ * All health checks and restarts run on a single daemon thread, so they never overlap. Health checks are only
+ * scheduled while supervising, and the thread exits once it is idle.
+ */
+public class NgrokSupervisor {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(NgrokSupervisor.class));
+
+    private final NgrokClient ngrokClient;
+    private final RestartPolicy restartPolicy;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final HttpClient healthCheckClient;
+    private final AtomicInteger restartCount = new AtomicInteger();
+
+    private volatile boolean supervising;
+    private volatile Duration lastRecoveryTime;
+    private CompletableFuture<Void> watchedExit;
+    private ScheduledFuture<?> healthCheck;
+
+    // Only accessed from the scheduler thread
+    private boolean restarting;
+    private int failedHealthChecks;
+    private int restartAttempts;
+    private long failureDetectedAt;
+
+    NgrokSupervisor(final NgrokClient ngrokClient,
+                    final RestartPolicy restartPolicy) {
+        this.ngrokClient = ngrokClient;
+        this.restartPolicy = restartPolicy;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = ngrokClient.getJavaNgrokConfig().getThreadFactory().newThread(runnable);
+            thread.setName("ngrok-supervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setKeepAliveTime(restartPolicy.getHealthCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+        this.scheduler.allowCoreThreadTimeOut(true);
+        // A stalled API must not block the only thread that also handles exits and restarts
+        this.healthCheckClient = new DefaultHttpClient.Builder()
+                .withTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, restartPolicy.getHealthCheckInterval().toMillis())))
+                .build();
+    }
+
+    /**
+     * Get the number of times the <code>ngrok</code> process has been successfully restarted.
+     */
+    public int getRestartCount() {
+        return restartCount.get();
+    }
+
+    /**
+     * Get the time between detecting the most recent failure and its tunnels being re-created.
+     *
+     * @return The recovery time, or <code>null</code> if the process has never been restarted.
+     */
+    public Duration getLastRecoveryTime() {
+        return lastRecoveryTime;
+    }
+
+    /**
+     * Get whether the <code>ngrok</code> process is currently being supervised.
+     */
+    public boolean isSupervising() {
+        return supervising;
+    }
+
+    synchronized void watch() {
+        supervising = true;
+
+        if (isNull(healthCheck)) {
+            final long interval = restartPolicy.getHealthCheckInterval().toMillis();
+            healthCheck = scheduler.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        final CompletableFuture<Void> onExit = ngrokClient.getNgrokProcess().onExit();
+        if (nonNull(onExit) && onExit != watchedExit) {
+            watchedExit = onExit;
+            onExit.thenRun(() -> scheduler.execute(this::onProcessExit));
+        }
+    }
+
+    synchronized void unwatch() {
+        supervising = false;
+        watchedExit = null;
+
+        if (nonNull(healthCheck)) {
+            healthCheck.cancel(false);
+            healthCheck = null;
+        }
+    }
+
+    private void onProcessExit() {
+        if (!supervising || restarting) {
+            return;
+        }
+
+        // Stopping ngrok, including on JVM shutdown, exits it intentionally
+        final NgrokProcess ngrokProcess = ngrokClient.getNgrokProcess();
+        if (ngrokProcess.isRunning() || ngrokProcess.isStopping()) {
+            return;
+        }
+
+        LOGGER.warning("ngrok process exited unexpectedly, restarting");
+
+        restart();
+    }
+
+    private void checkHealth() {
+        if (!supervising || restarting) {
+            return;
+        }
+
+        final NgrokProcess ngrokProcess = ngrokClient.getNgrokProcess();
+        if (ngrokProcess.isStopping()) {
+            return;
+        }
+
+        boolean healthy;
+        try {
+            final NgrokProcess.ProcessMonitor processMonitor = ngrokProcess.getProcessMonitor();
+            if (nonNull(processMonitor) && ngrokProcess.isRunning()) {
+                healthy = processMonitor.checkHealth(healthCheckClient);
+            } else {
+                healthy = nonNull(ngrokProcess.getApiUrl());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "ngrok health check failed", e);
+
+            healthy = false;
+        }
+
+        if (healthy) {
+            failedHealthChecks = 0;
+        } else if (!ngrokProcess.isRunning() || ++failedHealthChecks >= restartPolicy.getMaxFailedHealthChecks()) {
+            LOGGER.warning(String.format("ngrok process is not healthy after %s checks, restarting", failedHealthChecks));
+
+            restart();
+        }
+    }
+
+    private void restart() {
+        if (!supervising || ngrokClient.getNgrokProcess().isStopping()) {
+            resetFailureState();
+            return;
+        }
+
+        restarting = true;
+        if (failureDetectedAt == 0) {
+            failureDetectedAt = System.nanoTime();
+        }
+
+        final Map<String, Tunnel> restoredTunnels;
+        try {
+            restoredTunnels = ngrokClient.restoreTunnels();
+        } catch (RuntimeException e) {
+            ++restartAttempts;
+
+            if (restartPolicy.getMaxAttempts() > 0 && restartAttempts >= restartPolicy.getMaxAttempts()) {
+                LOGGER.log(Level.SEVERE, String.format("Unable to restart ngrok after %s attempts, no longer supervising", restartAttempts), e);
+
+                resetFailureState();
+                unwatch();
+                return;
+            }
+
+            final Duration backoff = restartPolicy.getBackoff(restartAttempts, ThreadLocalRandom.current().nextDouble());
+            LOGGER.log(Level.WARNING, String.format("Unable to restart ngrok, retrying in %s ms", backoff.toMillis()), e);
+
+            scheduler.schedule(this::restart, backoff.toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        lastRecoveryTime = Duration.ofNanos(System.nanoTime() - failureDetectedAt);
+        restartCount.incrementAndGet();
+        resetFailureState();
+
+        LOGGER.info(String.format("ngrok process restarted and %s tunnels restored in %s ms", restoredTunnels.size(), lastRecoveryTime.toMillis()));
+
+        watch();
+
+        if (isNull(restartPolicy.getTunnelsRestoredCallback())) {
+            return;
+        }
+        try {
+            restartPolicy.getTunnelsRestoredCallback().apply(restoredTunnels);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "An error occurred in the tunnels restored callback", e);
+        }
+    }
+
+    private void resetFailureState() {
+        restarting = false;
+        failedHealthChecks = 0;
+        restartAttempts = 0;
+        failureDetectedAt = 0;
+    }
+}
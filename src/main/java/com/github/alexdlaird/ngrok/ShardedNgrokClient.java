@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok;
+
+import com.github.alexdlaird.exception.JavaNgrokException;
+import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A client that spreads tunnels across several <code>ngrok</code> processes, each managed by its own
+ * {@link NgrokClient}, for when a single process becomes a bottleneck. Each shard must use its own
+ * <code>configPath</code> and <code>web_addr</code>.
+ *
+ * <h3>Basic Usage</h3>
+ * <pre>
+ * final ShardedNgrokClient shardedNgrokClient = new ShardedNgrokClient.Builder()
+ *         .withNgrokClient(new NgrokClient.Builder().withJavaNgrokConfig(javaNgrokConfig1).build())
+ *         .withNgrokClient(new NgrokClient.Builder().withJavaNgrokConfig(javaNgrokConfig2).build())
+ *         .withShardingStrategy(ShardingStrategy.CONSISTENT_HASH)
+ *         .build();
+ *
+ * final Tunnel tunnel = shardedNgrokClient.connect(createTunnel);
+ * shardedNgrokClient.disconnect(tunnel.getPublicUrl());
+ * </pre>
+ */
+public class ShardedNgrokClient {
+
+    private static final int VIRTUAL_NODES_PER_SHARD = 64;
+
+    private final List<NgrokClient> ngrokClients;
+    private final ShardingStrategy shardingStrategy;
+    private final TreeMap<Integer, NgrokClient> hashRing = new TreeMap<>();
+
+    private final Map<String, NgrokClient> tunnelOwners = new ConcurrentHashMap<>();
+    private final Map<NgrokClient, Integer> tunnelCounts = new ConcurrentHashMap<>();
+    // Shards chosen for tunnels that are still being connected, counted towards their load until they are
+    private final Map<NgrokClient, Integer> reservations = new ConcurrentHashMap<>();
+
+    private ShardedNgrokClient(final Builder builder) {
+        this.ngrokClients = List.copyOf(builder.ngrokClients);
+        this.shardingStrategy = builder.shardingStrategy;
+
+        for (int i = 0; i < ngrokClients.size(); ++i) {
+            final NgrokClient ngrokClient = ngrokClients.get(i);
+            tunnelCounts.put(ngrokClient, 0);
+            reservations.put(ngrokClient, 0);
+            for (int j = 0; j < VIRTUAL_NODES_PER_SHARD; ++j) {
+                hashRing.put(hash(String.format("shard-%s-%s", i, j)), ngrokClient);
+            }
+        }
+    }
+
+    /**
+     * Establish a new <code>ngrok</code> tunnel on the shard chosen by the {@link ShardingStrategy}. See
+     * {@link NgrokClient#connect(CreateTunnel)}.
+     *
+     * @param createTunnel The tunnel definition.
+     * @return The created Tunnel.
+     */
+    public Tunnel connect(final CreateTunnel createTunnel) {
+        final NgrokClient ngrokClient = reserveShard(createTunnel.getName());
+
+        final Tunnel tunnel;
+        try {
+            tunnel = ngrokClient.connect(createTunnel);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                reservations.merge(ngrokClient, -1, Integer::sum);
+            }
+
+            throw e;
+        }
+
+        synchronized (this) {
+            reservations.merge(ngrokClient, -1, Integer::sum);
+            if (isNull(tunnelOwners.put(tunnel.getPublicUrl(), ngrokClient))) {
+                tunnelCounts.merge(ngrokClient, 1, Integer::sum);
+            }
+        }
+
+        return tunnel;
+    }
+
+    /**
+     * Disconnect the <code>ngrok</code> tunnel for the given URL on the shard that owns it, if open.
+     *
+     * @param publicUrl The public URL of the tunnel to disconnect.
+     */
+    public void disconnect(final String publicUrl) {
+        if (!tunnelOwners.containsKey(publicUrl)) {
+            getTunnels();
+        }
+
+        final NgrokClient ngrokClient = tunnelOwners.get(publicUrl);
+        if (isNull(ngrokClient)) {
+            return;
+        }
+
+        // Only disowned once closed, so a tunnel that failed to close can still be disconnected
+        ngrokClient.disconnect(publicUrl);
+
+        synchronized (this) {
+            if (tunnelOwners.remove(publicUrl, ngrokClient)) {
+                tunnelCounts.merge(ngrokClient, -1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Get the active <code>ngrok</code> tunnels from all shards, queried in parallel.
+     *
+     * @return The active <code>ngrok</code> tunnels.
+     */
+    public List<Tunnel> getTunnels() {
+        final Set<String> knownPublicUrls;
+        synchronized (this) {
+            knownPublicUrls = new HashSet<>(tunnelOwners.keySet());
+        }
+
+        final Map<NgrokClient, CompletableFuture<List<Tunnel>>> futures = ngrokClients.stream()
+                .collect(Collectors.toMap(ngrokClient -> ngrokClient,
+                        ngrokClient -> CompletableFuture.supplyAsync(ngrokClient::getTunnels, ngrokClient.getJavaNgrokConfig().getExecutor())));
+
+        // Every shard is joined before ownership is touched, so a shard that fails leaves it as it was
+        join(CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)));
+
+        final List<Tunnel> tunnels = new ArrayList<>();
+        final Map<String, NgrokClient> owners = new HashMap<>();
+        for (final Map.Entry<NgrokClient, CompletableFuture<List<Tunnel>>> entry : futures.entrySet()) {
+            final List<Tunnel> shardTunnels = entry.getValue().join();
+            for (final Tunnel tunnel : shardTunnels) {
+                owners.put(tunnel.getPublicUrl(), entry.getKey());
+            }
+            tunnels.addAll(shardTunnels);
+        }
+
+        synchronized (this) {
+            // Tunnels disconnected while the shards were queried are not brought back, and tunnels connected in
+            // that time are kept even if a shard's response was too early to include them
+            owners.keySet().removeIf(publicUrl -> knownPublicUrls.contains(publicUrl) && !tunnelOwners.containsKey(publicUrl));
+            tunnelOwners.forEach((publicUrl, ngrokClient) -> {
+                if (!knownPublicUrls.contains(publicUrl)) {
+                    owners.putIfAbsent(publicUrl, ngrokClient);
+                }
+            });
+
+            tunnelOwners.clear();
+            tunnelOwners.putAll(owners);
+
+            ngrokClients.forEach(ngrokClient -> tunnelCounts.put(ngrokClient, 0));
+            owners.values().forEach(ngrokClient -> tunnelCounts.merge(ngrokClient, 1, Integer::sum));
+        }
+
+        return tunnels;
+    }
+
+    /**
+     * Get the latest metrics for the given {@link Tunnel} from the shard that owns it. See
+     * {@link NgrokClient#refreshMetrics(Tunnel)}.
+     *
+     * @param tunnel The Tunnel to update.
+     */
+    public void refreshMetrics(final Tunnel tunnel) {
+        if (!tunnelOwners.containsKey(tunnel.getPublicUrl())) {
+            getTunnels();
+        }
+
+        final NgrokClient ngrokClient = tunnelOwners.get(tunnel.getPublicUrl());
+        if (isNull(ngrokClient)) {
+            throw new JavaNgrokException(String.format("No shard owns the tunnel %s.", tunnel.getPublicUrl()));
+        }
+
+        ngrokClient.refreshMetrics(tunnel);
+    }
+
+    /**
+     * Terminate the <code>ngrok</code> processes of all shards.
+     */
+    public void kill() {
+        ngrokClients.forEach(NgrokClient::kill);
+
+        synchronized (this) {
+            tunnelOwners.clear();
+            ngrokClients.forEach(ngrokClient -> tunnelCounts.put(ngrokClient, 0));
+        }
+    }
+
+    /**
+     * Get the clients for each shard.
+     */
+    public List<NgrokClient> getNgrokClients() {
+        return ngrokClients;
+    }
+
+    /**
+     * Get the strategy used to choose the shard for new tunnels.
+     */
+    public ShardingStrategy getShardingStrategy() {
+        return shardingStrategy;
+    }
+
+    private synchronized NgrokClient reserveShard(final String name) {
+        final NgrokClient ngrokClient;
+        if (shardingStrategy == ShardingStrategy.CONSISTENT_HASH && nonNull(name)) {
+            final Map.Entry<Integer, NgrokClient> entry = hashRing.ceilingEntry(hash(name));
+            ngrokClient = isNull(entry) ? hashRing.firstEntry().getValue() : entry.getValue();
+        } else {
+            NgrokClient leastLoaded = ngrokClients.get(0);
+            for (final NgrokClient candidate : ngrokClients) {
+                if (getLoad(candidate) < getLoad(leastLoaded)) {
+                    leastLoaded = candidate;
+                }
+            }
+            ngrokClient = leastLoaded;
+        }
+
+        reservations.merge(ngrokClient, 1, Integer::sum);
+
+        return ngrokClient;
+    }
+
+    private int getLoad(final NgrokClient ngrokClient) {
+        return tunnelCounts.get(ngrokClient) + reservations.get(ngrokClient);
+    }
+
+    private static int hash(final String key) {
+        // Spread String.hashCode() with the murmur3 finalizer so nearby keys land far apart on the ring
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Builder for a {@link ShardedNgrokClient}, see docs for that class for example usage.
+     */
+    public static class Builder {
+
+        private final List<NgrokClient> ngrokClients = new ArrayList<>();
+        private ShardingStrategy shardingStrategy = ShardingStrategy.LEAST_TUNNELS;
+
+        /**
+         * Add a shard. Each shard's <code>ngrok</code> process must use its own <code>configPath</code> and
+         * <code>web_addr</code>.
+         */
+        public Builder withNgrokClient(final NgrokClient ngrokClient) {
+            this.ngrokClients.add(ngrokClient);
+            return this;
+        }
+
+        /**
+         * Add several shards, see {@link #withNgrokClient(NgrokClient)}.
+         */
+        public Builder withNgrokClients(final List<NgrokClient> ngrokClients) {
+            this.ngrokClients.addAll(ngrokClients);
+            return this;
+        }
+
+        /**
+         * The strategy used to choose the shard for new tunnels, defaults to
+         * {@link ShardingStrategy#LEAST_TUNNELS}.
+         */
+        public Builder withShardingStrategy(final ShardingStrategy shardingStrategy) {
+            this.shardingStrategy = shardingStrategy;
+            return this;
+        }
+
+        public ShardedNgrokClient build() {
+            if (ngrokClients.isEmpty()) {
+                throw new IllegalArgumentException("At least one \"NgrokClient\" must be given.");
+            }
+            if (Set.copyOf(ngrokClients).size() != ngrokClients.size()) {
+                throw new IllegalArgumentException("The same \"NgrokClient\" cannot be given as more than one shard.");
+            }
+
+            return new ShardedNgrokClient(this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok;
+
+/**
+ * How a {@link ShardedNgrokClient} chooses which <code>ngrok</code> process a new tunnel is opened on.
+ */
+public enum ShardingStrategy {
+    /**
+     * Open the tunnel on the shard that currently owns the fewest tunnels.
+     */
+    LEAST_TUNNELS,
+    /**
+     * Open the tunnel on the shard its name hashes to, so a given name is always opened on the same shard. Tunnels
+     * without a name fall back to {@link #LEAST_TUNNELS}.
+     */
+    CONSISTENT_HASH
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.conf;
+
+/**
+ * An enum representing how <code>ngrok</code>'s output is consumed after startup when it is not being monitored,
+ * as set with {@link JavaNgrokConfig.Builder#withoutMonitoring()}. Output is always consumed, so
+ * <code>ngrok</code> never blocks writing to a full pipe, but it is never parsed.
+ */
+public enum DrainPolicy {
+    /**
+     * Read and discard the output.
+     */
+    DISCARD,
+    /**
+     * Append the raw output to {@link JavaNgrokConfig#getDrainPath()}, rotating the file to a single
+     * <code>.1</code> backup when it reaches {@link JavaNgrokConfig#getDrainMaxFileSize()}.
+     */
+    ROTATING_FILE,
+    /**
+     * Read and discard the output, only counting the lines, which are available from
+     * {@link com.github.alexdlaird.ngrok.process.NgrokProcess.ProcessMonitor#getDrainedLines()}.
+     */
+    COUNT
+}
@@ -26,11 +26,18 @@ package com.github.alexdlaird.ngrok.conf;
 import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
 import com.github.alexdlaird.ngrok.installer.NgrokVersion;
 import com.github.alexdlaird.ngrok.process.NgrokLog;
+import com.github.alexdlaird.ngrok.process.StartupTimings;
 import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
 import com.github.alexdlaird.ngrok.protocol.Region;
+import com.github.alexdlaird.util.DefaultThreadFactory;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Function;
+import java.util.logging.Level;
 
 import static java.util.Objects.isNull;
 
@@ -65,9 +72,29 @@ public class JavaNgrokConfig {
     private final String authToken;
     private final Region region;
     private final boolean keepMonitoring;
+    private final DrainPolicy drainPolicy;
+    private final Path drainPath;
+    private final long drainMaxFileSize;
     private final int maxLogs;
     private final Function<NgrokLog, Void> logEventCallback;
+    private final int logEventQueueSize;
+    private final LogEventOverflowPolicy logEventOverflowPolicy;
+    private final int logEventSampleRate;
+    private final Level minLogLevel;
+    private final Function<StartupTimings, Void> startupTimingsCallback;
     private final int startupTimeout;
+    private final Readiness readiness;
+    private final int stopTimeout;
+    private final int healthCheckCacheTimeout;
+    private final String apiUrl;
+    private final String webAddr;
+    private final List<String> startTunnels;
+    private final boolean startAllTunnels;
+    private final Path versionCachePath;
+    private final boolean sharedProcess;
+    private final ThreadFactory threadFactory;
+    private final Executor executor;
+    private final boolean multiplexedOutput;
     private final NgrokVersion ngrokVersion;
 
     private JavaNgrokConfig(final Builder builder) {
@@ -76,9 +103,29 @@ public class JavaNgrokConfig {
         this.authToken = builder.authToken;
         this.region = builder.region;
         this.keepMonitoring = builder.keepMonitoring;
+        this.drainPolicy = builder.drainPolicy;
+        this.drainPath = builder.drainPath;
+        this.drainMaxFileSize = builder.drainMaxFileSize;
         this.maxLogs = builder.maxLogs;
         this.logEventCallback = builder.logEventCallback;
+        this.logEventQueueSize = builder.logEventQueueSize;
+        this.logEventOverflowPolicy = builder.logEventOverflowPolicy;
+        this.logEventSampleRate = builder.logEventSampleRate;
+        this.minLogLevel = builder.minLogLevel;
+        this.startupTimingsCallback = builder.startupTimingsCallback;
         this.startupTimeout = builder.startupTimeout;
+        this.readiness = builder.readiness;
+        this.stopTimeout = builder.stopTimeout;
+        this.healthCheckCacheTimeout = builder.healthCheckCacheTimeout;
+        this.apiUrl = builder.apiUrl;
+        this.webAddr = builder.webAddr;
+        this.startTunnels = builder.startTunnels;
+        this.startAllTunnels = builder.startAllTunnels;
+        this.versionCachePath = builder.versionCachePath;
+        this.sharedProcess = builder.sharedProcess;
+        this.threadFactory = builder.threadFactory;
+        this.executor = builder.executor;
+        this.multiplexedOutput = builder.multiplexedOutput;
         this.ngrokVersion = builder.ngrokVersion;
     }
 
@@ -117,6 +164,29 @@ public class JavaNgrokConfig {
         return keepMonitoring;
     }
 
+    /**
+     * Get how <code>ngrok</code>'s output is consumed after startup when it is not being monitored.
+     */
+    public DrainPolicy getDrainPolicy() {
+        return drainPolicy;
+    }
+
+    /**
+     * Get the file <code>ngrok</code>'s output is written to with {@link DrainPolicy#ROTATING_FILE}.
+     *
+     * @return The file, or <code>null</code> to write to <code>ngrok.log</code> next to {@link #getConfigPath()}.
+     */
+    public Path getDrainPath() {
+        return drainPath;
+    }
+
+    /**
+     * Get the size in bytes at which the file written to with {@link DrainPolicy#ROTATING_FILE} is rotated.
+     */
+    public long getDrainMaxFileSize() {
+        return drainMaxFileSize;
+    }
+
     /**
      * Get the maximum number of <code>ngrok</code> logs to retain in the monitoring thread.
      */
@@ -131,6 +201,44 @@ public class JavaNgrokConfig {
         return logEventCallback;
     }
 
+    /**
+     * Get the max number of log events queued for the log event callback, which is invoked on its own thread
+     * rather than the one reading <code>ngrok</code>'s output, or <code>0</code> if it is invoked inline.
+     */
+    public int getLogEventQueueSize() {
+        return logEventQueueSize;
+    }
+
+    /**
+     * Get what happens to a log event when the queue of events waiting on the log event callback is full.
+     */
+    public LogEventOverflowPolicy getLogEventOverflowPolicy() {
+        return logEventOverflowPolicy;
+    }
+
+    /**
+     * Get how many of the log events that don't fit in a full queue are kept one of with
+     * {@link LogEventOverflowPolicy#SAMPLE}.
+     */
+    public int getLogEventSampleRate() {
+        return logEventSampleRate;
+    }
+
+    /**
+     * Get the level below which <code>ngrok</code>'s logs are skipped, rather than parsed, retained, logged and
+     * passed to the log event callback.
+     */
+    public Level getMinLogLevel() {
+        return minLogLevel;
+    }
+
+    /**
+     * Get the callback that is invoked with the phase timings each time <code>ngrok</code> is started.
+     */
+    public Function<StartupTimings, Void> getStartupTimingsCallback() {
+        return startupTimingsCallback;
+    }
+
     /**
      * Get the startup time before <code>ngrok</code> times out on boot.
      */
@@ -138,6 +246,97 @@ public class JavaNgrokConfig {
         return startupTimeout;
     }
 
+    /**
+     * Get how far <code>ngrok</code> must get in starting up before it is considered started.
+     */
+    public Readiness getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Get the number of seconds <code>ngrok</code> is given to exit gracefully when stopped before it is killed
+     * forcibly.
+     */
+    public int getStopTimeout() {
+        return stopTimeout;
+    }
+
+    /**
+     * Get the number of seconds a successful <code>ngrok</code> API health check is trusted before it is probed
+     * again.
+     */
+    public int getHealthCheckCacheTimeout() {
+        return healthCheckCacheTimeout;
+    }
+
+    /**
+     * Get the API URL of an already running <code>ngrok</code> process to attach to, instead of starting one.
+     */
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    /**
+     * Get the <code>web_addr</code> that <code>ngrok</code> is started with, overriding the one in
+     * {@link #getConfigPath()}.
+     */
+    public String getWebAddr() {
+        return webAddr;
+    }
+
+    /**
+     * Get the names of the tunnels defined in {@link #getConfigPath()} that are started along with
+     * <code>ngrok</code>.
+     */
+    public List<String> getStartTunnels() {
+        return startTunnels;
+    }
+
+    /**
+     * Get whether all tunnels defined in {@link #getConfigPath()} are started along with <code>ngrok</code>.
+     */
+    public boolean isStartAllTunnels() {
+        return startAllTunnels;
+    }
+
+    /**
+     * Get the file the <code>ngrok</code> version is cached in, if it is cached on disk.
+     */
+    public Path getVersionCachePath() {
+        return versionCachePath;
+    }
+
+    /**
+     * Get whether the <code>ngrok</code> process started from {@link #getConfigPath()} is shared with other JVMs
+     * on this host.
+     */
+    public boolean isSharedProcess() {
+        return sharedProcess;
+    }
+
+    /**
+     * Get the factory for threads started to monitor <code>ngrok</code> and to run asynchronous work.
+     */
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * Get the executor for asynchronous work, which runs tasks on threads from {@link #getThreadFactory()}. Each
+     * task gets its own thread when these are virtual threads, otherwise idle threads are reused.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get whether <code>ngrok</code>'s output is read by a small pool of threads shared by all processes in this
+     * JVM, rather than a thread per process.
+     */
+    public boolean isMultiplexedOutput() {
+        return multiplexedOutput;
+    }
+
     /**
      * Get the major <code>ngrok</code> version to be used.
      */
@@ -155,9 +354,29 @@ public class JavaNgrokConfig {
         private String authToken;
         private Region region;
         private boolean keepMonitoring = true;
+        private DrainPolicy drainPolicy = DrainPolicy.DISCARD;
+        private Path drainPath;
+        private long drainMaxFileSize = 10 * 1024 * 1024;
         private int maxLogs = 100;
         private Function<NgrokLog, Void> logEventCallback;
+        private int logEventQueueSize;
+        private LogEventOverflowPolicy logEventOverflowPolicy = LogEventOverflowPolicy.BLOCK;
+        private int logEventSampleRate = 10;
+        private Level minLogLevel = Level.ALL;
+        private Function<StartupTimings, Void> startupTimingsCallback;
         private int startupTimeout = 15;
+        private Readiness readiness = Readiness.SESSION;
+        private int stopTimeout = 5;
+        private int healthCheckCacheTimeout = 5;
+        private String apiUrl;
+        private String webAddr;
+        private List<String> startTunnels = List.of();
+        private boolean startAllTunnels;
+        private Path versionCachePath;
+        private boolean sharedProcess;
+        private ThreadFactory threadFactory = new DefaultThreadFactory();
+        private Executor executor;
+        private boolean multiplexedOutput;
         private NgrokVersion ngrokVersion = NgrokVersion.V3;
 
         public Builder() {
@@ -174,9 +393,29 @@ public class JavaNgrokConfig {
             this.authToken = javaNgrokConfig.authToken;
             this.region = javaNgrokConfig.region;
             this.keepMonitoring = javaNgrokConfig.keepMonitoring;
+            this.drainPolicy = javaNgrokConfig.drainPolicy;
+            this.drainPath = javaNgrokConfig.drainPath;
+            this.drainMaxFileSize = javaNgrokConfig.drainMaxFileSize;
             this.maxLogs = javaNgrokConfig.maxLogs;
             this.logEventCallback = javaNgrokConfig.logEventCallback;
+            this.logEventQueueSize = javaNgrokConfig.logEventQueueSize;
+            this.logEventOverflowPolicy = javaNgrokConfig.logEventOverflowPolicy;
+            this.logEventSampleRate = javaNgrokConfig.logEventSampleRate;
+            this.minLogLevel = javaNgrokConfig.minLogLevel;
+            this.startupTimingsCallback = javaNgrokConfig.startupTimingsCallback;
             this.startupTimeout = javaNgrokConfig.startupTimeout;
+            this.readiness = javaNgrokConfig.readiness;
+            this.stopTimeout = javaNgrokConfig.stopTimeout;
+            this.healthCheckCacheTimeout = javaNgrokConfig.healthCheckCacheTimeout;
+            this.apiUrl = javaNgrokConfig.apiUrl;
+            this.webAddr = javaNgrokConfig.webAddr;
+            this.startTunnels = javaNgrokConfig.startTunnels;
+            this.startAllTunnels = javaNgrokConfig.startAllTunnels;
+            this.versionCachePath = javaNgrokConfig.versionCachePath;
+            this.sharedProcess = javaNgrokConfig.sharedProcess;
+            this.threadFactory = javaNgrokConfig.threadFactory;
+            this.executor = javaNgrokConfig.executor;
+            this.multiplexedOutput = javaNgrokConfig.multiplexedOutput;
             this.ngrokVersion = javaNgrokConfig.ngrokVersion;
         }
 
@@ -221,6 +460,37 @@ public class JavaNgrokConfig {
             return this;
         }
 
+        /**
+         * How <code>ngrok</code>'s output is consumed after startup when {@link #withoutMonitoring()} is set,
+         * defaults to {@link DrainPolicy#DISCARD}.
+         */
+        public Builder withDrainPolicy(final DrainPolicy drainPolicy) {
+            this.drainPolicy = drainPolicy;
+            return this;
+        }
+
+        /**
+         * The file <code>ngrok</code>'s output is written to with {@link DrainPolicy#ROTATING_FILE}, defaults
+         * to <code>ngrok.log</code> next to {@link #withConfigPath(Path) configPath}.
+         */
+        public Builder withDrainPath(final Path drainPath) {
+            this.drainPath = drainPath;
+            return this;
+        }
+
+        /**
+         * The size in bytes at which the file written to with {@link DrainPolicy#ROTATING_FILE} is rotated, and the
+         * log of a {@link #withSharedProcess() shared process} is truncated, defaults to 10 MiB.
+         */
+        public Builder withDrainMaxFileSize(final long drainMaxFileSize) {
+            if (drainMaxFileSize < 1) {
+                throw new IllegalArgumentException("\"drainMaxFileSize\" must be greater than 0.");
+            }
+
+            this.drainMaxFileSize = drainMaxFileSize;
+            return this;
+        }
+
         /**
          * The maximum number of <code>ngrok</code> logs to retain in the monitoring thread.
          */
@@ -242,6 +512,62 @@ public class JavaNgrokConfig {
             return this;
         }
 
+        /**
+         * Invoke the log event callback on its own thread, through a queue of up to this many events, so a slow
+         * callback does not hold up reading <code>ngrok</code>'s output. Defaults to <code>0</code>, which invokes
+         * the callback inline.
+         */
+        public Builder withLogEventQueueSize(final int logEventQueueSize) {
+            if (logEventQueueSize < 0) {
+                throw new IllegalArgumentException("\"logEventQueueSize\" must be greater than or equal to 0.");
+            }
+
+            this.logEventQueueSize = logEventQueueSize;
+            return this;
+        }
+
+        /**
+         * What happens to a log event when the queue set with {@link #withLogEventQueueSize(int)} is full, defaults
+         * to {@link LogEventOverflowPolicy#BLOCK}.
+         */
+        public Builder withLogEventOverflowPolicy(final LogEventOverflowPolicy logEventOverflowPolicy) {
+            this.logEventOverflowPolicy = logEventOverflowPolicy;
+            return this;
+        }
+
+        /**
+         * Keep one in this many of the log events that don't fit in a full queue with
+         * {@link LogEventOverflowPolicy#SAMPLE}, defaults to 10.
+         */
+        public Builder withLogEventSampleRate(final int logEventSampleRate) {
+            if (logEventSampleRate < 1) {
+                throw new IllegalArgumentException("\"logEventSampleRate\" must be greater than 0.");
+            }
+
+            this.logEventSampleRate = logEventSampleRate;
+            return this;
+        }
+
+        /**
+         * Skip <code>ngrok</code>'s logs below this level, defaults to {@link Level#ALL}. Each line's level is
+         * found with a quick scan for its <code>lvl</code> field, and lines below it are not parsed, retained,
+         * logged or passed to the log event callback. While <code>ngrok</code> is starting, they are still parsed
+         * to detect its startup states.
+         */
+        public Builder withMinLogLevel(final Level minLogLevel) {
+            this.minLogLevel = minLogLevel;
+            return this;
+        }
+
+        /**
+         * A callback that will be invoked with the {@link StartupTimings} each time <code>ngrok</code> finishes
+         * starting, or fails to, before {@link com.github.alexdlaird.ngrok.process.NgrokProcess#start()} returns.
+         */
+        public Builder withStartupTimingsCallback(final Function<StartupTimings, Void> startupTimingsCallback) {
+            this.startupTimingsCallback = startupTimingsCallback;
+            return this;
+        }
+
         /**
          * The max number of seconds to wait for <code>ngrok</code> to start before timing out.
          */
@@ -254,6 +580,136 @@ public class JavaNgrokConfig {
             return this;
         }
 
+        /**
+         * How far <code>ngrok</code> must get in starting up before it is considered started, defaults to
+         * {@link Readiness#SESSION}. With {@link Readiness#API}, <code>start()</code> returns as soon as the local
+         * API is up, and the remote session is only waited on when a tunnel is connected.
+         */
+        public Builder withReadiness(final Readiness readiness) {
+            this.readiness = readiness;
+            return this;
+        }
+
+        /**
+         * The max number of seconds to wait for <code>ngrok</code> to exit gracefully when stopped before it is
+         * killed forcibly, defaults to 5.
+         */
+        public Builder withStopTimeout(final int stopTimeout) {
+            if (stopTimeout < 1) {
+                throw new IllegalArgumentException("\"stopTimeout\" must be greater than 0.");
+            }
+
+            this.stopTimeout = stopTimeout;
+            return this;
+        }
+
+        /**
+         * The max number of seconds a successful health check of the <code>ngrok</code> API is trusted before
+         * it is probed again, defaults to 5. Set to 0 to probe the API on every check.
+         */
+        public Builder withHealthCheckCacheTimeout(final int healthCheckCacheTimeout) {
+            if (healthCheckCacheTimeout < 0) {
+                throw new IllegalArgumentException("\"healthCheckCacheTimeout\" cannot be negative.");
+            }
+
+            this.healthCheckCacheTimeout = healthCheckCacheTimeout;
+            return this;
+        }
+
+        /**
+         * The API URL (for example, <code>http://127.0.0.1:4040</code>) of an already running <code>ngrok</code>
+         * process to attach to. When set, {@link com.github.alexdlaird.ngrok.process.NgrokProcess} will not install
+         * or start <code>ngrok</code>, it will validate the API with a single request and manage tunnels through it.
+         */
+        public Builder withApiUrl(final String apiUrl) {
+            if (!apiUrl.toLowerCase().startsWith("http")) {
+                throw new IllegalArgumentException("\"apiUrl\" must start with \"http\".");
+            }
+
+            this.apiUrl = apiUrl;
+            return this;
+        }
+
+        /**
+         * The <code>web_addr</code> (for example, <code>127.0.0.1:4041</code>) to start <code>ngrok</code> with,
+         * overriding the one in {@link #withConfigPath(Path) configPath}. If the port is <code>0</code>, a free
+         * loopback port is picked each time <code>ngrok</code> starts, so several processes can run on one host
+         * without colliding. Since the API URL is then known up front, startup does not depend on scraping it from
+         * <code>ngrok</code>'s logs.
+         */
+        public Builder withWebAddr(final String webAddr) {
+            if (isNull(webAddr) || !webAddr.matches("^[^\\s:]+:\\d{1,5}$")) {
+                throw new IllegalArgumentException("\"webAddr\" must be of the form \"host:port\".");
+            }
+
+            this.webAddr = webAddr;
+            return this;
+        }
+
+        /**
+         * The names of tunnels defined in {@link #withConfigPath(Path) configPath} to start along with
+         * <code>ngrok</code>, in the same launch, rather than each being created through the <code>ngrok</code> API
+         * afterwards. <code>ngrok</code> is not considered started until each of them has started.
+         */
+        public Builder withStartTunnels(final List<String> startTunnels) {
+            this.startTunnels = List.copyOf(startTunnels);
+            return this;
+        }
+
+        /**
+         * Start all tunnels defined in {@link #withConfigPath(Path) configPath} along with <code>ngrok</code>. See
+         * {@link #withStartTunnels(List)}.
+         */
+        public Builder withStartAllTunnels() {
+            this.startAllTunnels = true;
+            return this;
+        }
+
+        /**
+         * A file to cache the <code>ngrok</code> version in, so it survives JVM restarts. The version is always
+         * cached in memory, keyed by the binary's path, size and modification time.
+         */
+        public Builder withVersionCachePath(final Path versionCachePath) {
+            this.versionCachePath = versionCachePath;
+            return this;
+        }
+
+        /**
+         * Share the <code>ngrok</code> process started from {@link #withConfigPath(Path) configPath} with other
+         * JVMs on this host. The first JVM to start <code>ngrok</code> publishes its PID and API URL in a file next
+         * to the config, guarded by a file lock, and other JVMs attach to it instead of starting their own. The
+         * process is terminated when its last holder stops it. Its logs are written to a file next to the config,
+         * rather than piped to the JVM that started it, which truncates that file once it has read it and it
+         * has reached {@link #withDrainMaxFileSize(long) drainMaxFileSize}.
+         */
+        public Builder withSharedProcess() {
+            this.sharedProcess = true;
+            return this;
+        }
+
+        /**
+         * The factory for threads started to monitor <code>ngrok</code> and to run asynchronous work, defaults to
+         * {@link DefaultThreadFactory}, which starts virtual threads on JDK 21+.
+         */
+        public Builder withThreadFactory(final ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            this.executor = null;
+            return this;
+        }
+
+        /**
+         * Read <code>ngrok</code>'s output with a small, fixed pool of threads shared by every process in this JVM,
+         * rather than a thread per process, so the number of threads stays flat when running many agents. The
+         * reader threads come from {@link #withThreadFactory(ThreadFactory)}, and each process's lines are parsed
+         * and passed to its callbacks on {@link JavaNgrokConfig#getExecutor()}, so a slow callback does not hold up
+         * the output of other processes. Does not apply to a {@link #withSharedProcess() shared process}, whose
+         * output is read from a file.
+         */
+        public Builder withMultiplexedOutput() {
+            this.multiplexedOutput = true;
+            return this;
+        }
+
         /**
          * The major version of <code>ngrok</code> to be used.
          */
@@ -269,8 +725,39 @@ public class JavaNgrokConfig {
             if (isNull(configPath)) {
                 configPath = NgrokInstaller.DEFAULT_CONFIG_PATH;
             }
+            if (isNull(readiness)) {
+                readiness = Readiness.SESSION;
+            }
+            if (isNull(minLogLevel)) {
+                minLogLevel = Level.ALL;
+            }
+            if (isNull(logEventOverflowPolicy)) {
+                logEventOverflowPolicy = LogEventOverflowPolicy.BLOCK;
+            }
+            if (isNull(drainPolicy)) {
+                drainPolicy = DrainPolicy.DISCARD;
+            }
+            if (isNull(threadFactory)) {
+                threadFactory = new DefaultThreadFactory();
+            }
+            if (isNull(executor)) {
+                executor = createExecutor(threadFactory);
+            }
 
             return new JavaNgrokConfig(this);
         }
+
+        private static Executor createExecutor(final ThreadFactory threadFactory) {
+            if (threadFactory instanceof DefaultThreadFactory && DefaultThreadFactory.isVirtual()) {
+                return runnable -> threadFactory.newThread(runnable).start();
+            }
+
+            // Platform threads are too costly to start per task, and idle ones must not keep the JVM from exiting
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = threadFactory.newThread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.conf;
+
+/**
+ * An enum representing what happens to a log event when the queue of events waiting on the log event callback is
+ * full, as set with {@link JavaNgrokConfig.Builder#withLogEventQueueSize(int)}. Dropped events are counted in
+ * {@link com.github.alexdlaird.ngrok.process.NgrokProcess.ProcessMonitor#getDroppedLogEvents()}.
+ */
+public enum LogEventOverflowPolicy {
+    /**
+     * Wait for room in the queue, which stops <code>ngrok</code>'s output being read until the callback catches
+     * up.
+     */
+    BLOCK,
+    /**
+     * Drop the oldest queued event to make room.
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the new event.
+     */
+    DROP_NEWEST,
+    /**
+     * Keep one in every {@link JavaNgrokConfig#getLogEventSampleRate()} events that don't fit, dropping the oldest
+     * queued event to make room for it, and drop the rest.
+     */
+    SAMPLE
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.conf;
+
+import com.github.alexdlaird.ngrok.NgrokClient;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An object for configuring how a supervised {@link NgrokClient} restarts the <code>ngrok</code> process when it
+ * exits unexpectedly or its API stops responding. Tunnels that were opened with
+ * {@link NgrokClient#connect(com.github.alexdlaird.ngrok.protocol.CreateTunnel) NgrokClient.connect()} are
+ * re-created from their original definitions after each restart.
+ *
+ * <h3>Basic Usage</h3>
+ * <pre>
+ * final Function&lt;Map&lt;String, Tunnel&gt;, Void&gt; tunnelsRestoredCallback = restoredTunnels -&gt; {
+ *     restoredTunnels.forEach((oldPublicUrl, tunnel) -&gt;
+ *             System.out.println(oldPublicUrl + " is now " + tunnel.getPublicUrl()));
+ *     return null;
+ * };
+ * final RestartPolicy restartPolicy = new RestartPolicy.Builder()
+ *         .withInitialBackoff(Duration.ofMillis(500))
+ *         .withMaxBackoff(Duration.ofSeconds(30))
+ *         .withTunnelsRestoredCallback(tunnelsRestoredCallback)
+ *         .build();
+ *
+ * final NgrokClient ngrokClient = new NgrokClient.Builder()
+ *         .withRestartPolicy(restartPolicy)
+ *         .build();
+ * </pre>
+ */
+public class RestartPolicy {
+
+    private final Duration healthCheckInterval;
+    private final int maxFailedHealthChecks;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final Function<Map<String, Tunnel>, Void> tunnelsRestoredCallback;
+
+    private RestartPolicy(final Builder builder) {
+        this.healthCheckInterval = builder.healthCheckInterval;
+        this.maxFailedHealthChecks = builder.maxFailedHealthChecks;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.maxAttempts = builder.maxAttempts;
+        this.tunnelsRestoredCallback = builder.tunnelsRestoredCallback;
+    }
+
+    /**
+     * Get how often the <code>ngrok</code> API is probed to detect a stalled process.
+     */
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    /**
+     * Get the number of consecutive failed health checks after which the <code>ngrok</code> process is
+     * considered stalled.
+     */
+    public int getMaxFailedHealthChecks() {
+        return maxFailedHealthChecks;
+    }
+
+    /**
+     * Get the delay before retrying a restart that failed for the first time.
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Get the upper bound on the delay between restart attempts.
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Get the maximum number of consecutive restart attempts before supervision gives up, where 0 means no limit.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the callback that will be invoked with the re-created tunnels, keyed by their previous public URL,
+     * after each successful restart.
+     */
+    public Function<Map<String, Tunnel>, Void> getTunnelsRestoredCallback() {
+        return tunnelsRestoredCallback;
+    }
+
+    /**
+     * Compute the delay before the given restart attempt, doubling from {@link #getInitialBackoff()} up to
+     * {@link #getMaxBackoff()}, with random jitter of up to half the delay.
+     *
+     * @param attempt The number of restart attempts that have already failed.
+     * @param random  A random value between 0 (inclusive) and 1 (exclusive).
+     * @return The delay.
+     */
+    public Duration getBackoff(final int attempt, final double random) {
+        final long initialMillis = initialBackoff.toMillis();
+        final long maxMillis = maxBackoff.toMillis();
+
+        long delayMillis = initialMillis;
+        for (int i = 1; i < attempt && delayMillis < maxMillis; ++i) {
+            delayMillis *= 2;
+        }
+        delayMillis = Math.min(delayMillis, maxMillis);
+
+        return Duration.ofMillis(delayMillis / 2 + (long) (delayMillis / 2 * random));
+    }
+
+    /**
+     * Builder for a {@link RestartPolicy}, see docs for that class for example usage.
+     */
+    public static class Builder {
+
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        private int maxFailedHealthChecks = 3;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofSeconds(30);
+        private int maxAttempts = 0;
+        private Function<Map<String, Tunnel>, Void> tunnelsRestoredCallback;
+
+        /**
+         * How often the <code>ngrok</code> API is probed to detect a stalled process, defaults to 5 seconds.
+         * Process exits are detected immediately, regardless of this interval.
+         */
+        public Builder withHealthCheckInterval(final Duration healthCheckInterval) {
+            if (healthCheckInterval.isNegative() || healthCheckInterval.isZero()) {
+                throw new IllegalArgumentException("\"healthCheckInterval\" must be greater than 0.");
+            }
+
+            this.healthCheckInterval = healthCheckInterval;
+            return this;
+        }
+
+        /**
+         * The number of consecutive failed health checks after which the <code>ngrok</code> process is restarted,
+         * defaults to 3.
+         */
+        public Builder withMaxFailedHealthChecks(final int maxFailedHealthChecks) {
+            if (maxFailedHealthChecks < 1) {
+                throw new IllegalArgumentException("\"maxFailedHealthChecks\" must be greater than 0.");
+            }
+
+            this.maxFailedHealthChecks = maxFailedHealthChecks;
+            return this;
+        }
+
+        /**
+         * The delay before retrying a restart that failed for the first time, defaults to 500 milliseconds.
+         */
+        public Builder withInitialBackoff(final Duration initialBackoff) {
+            if (initialBackoff.isNegative() || initialBackoff.isZero()) {
+                throw new IllegalArgumentException("\"initialBackoff\" must be greater than 0.");
+            }
+
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * The upper bound on the delay between restart attempts, defaults to 30 seconds.
+         */
+        public Builder withMaxBackoff(final Duration maxBackoff) {
+            if (maxBackoff.isNegative() || maxBackoff.isZero()) {
+                throw new IllegalArgumentException("\"maxBackoff\" must be greater than 0.");
+            }
+
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * The maximum number of consecutive restart attempts before supervision gives up, defaults to 0 (no
+         * limit).
+         */
+        public Builder withMaxAttempts(final int maxAttempts) {
+            if (maxAttempts < 0) {
+                throw new IllegalArgumentException("\"maxAttempts\" cannot be negative.");
+            }
+
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * A callback that will be invoked with the re-created tunnels, keyed by their previous public URL, after
+         * each successful restart.
+         */
+        public Builder withTunnelsRestoredCallback(final Function<Map<String, Tunnel>, Void> tunnelsRestoredCallback) {
+            this.tunnelsRestoredCallback = tunnelsRestoredCallback;
+            return this;
+        }
+
+        public RestartPolicy build() {
+            if (maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("\"maxBackoff\" cannot be less than \"initialBackoff\".");
+            }
+
+            return new RestartPolicy(this);
+        }
+    }
+}
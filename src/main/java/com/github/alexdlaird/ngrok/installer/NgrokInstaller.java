@@ -43,15 +43,19 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import static com.github.alexdlaird.util.StringUtils.isBlank;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * A helper for downloading and installing the <code>ngrok</code> for the current system.
@@ -80,9 +84,7 @@ public class NgrokInstaller {
 
     private static final List<String> VALID_LOG_LEVELS = List.of("info", "debug");
 
-    private final Yaml yaml = new Yaml();
-
-    private final Map<String, Map<String, Object>> configCache = new HashMap<>();
+    private final Map<String, Map<String, Object>> configCache = new ConcurrentHashMap<>();
 
     /**
      * Get the <code>ngrok</code> executable for the current system.
@@ -130,16 +132,75 @@ public class NgrokInstaller {
 
             LOGGER.fine(String.format("Installing default config to %s ...", configPath));
 
-            final FileOutputStream out = new FileOutputStream(configPath.toFile());
-            final StringWriter writer = new StringWriter();
-            yaml.dump(config, writer);
-            out.write(writer.toString().getBytes());
-            out.close();
+            writeConfig(configPath, config);
         } catch (IOException e) {
             throw new JavaNgrokInstallerException(String.format("An error while installing the default ngrok config to %s.", configPath), e);
         }
     }
 
+    /**
+     * Set the <code>ngrok</code> auth token in the config at the given path, without starting <code>ngrok</code>.
+     * If a config is not already present for the given path, create one. The config is written atomically, and
+     * the cached config for the path is updated.
+     *
+     * @param configPath   The path to the <code>ngrok</code> config.
+     * @param authToken    The auth token.
+     * @param ngrokVersion The major version of <code>ngrok</code> installed.
+     */
+    public void setAuthToken(final Path configPath, final String authToken, final NgrokVersion ngrokVersion) {
+        LOGGER.fine(String.format("Updating authtoken for \"configPath\": %s", configPath));
+
+        // Computing under the cache entry serializes concurrent updates to the same config
+        configCache.compute(configPath.toString(), (key, cachedConfig) -> {
+            try {
+                if (nonNull(configPath.getParent())) {
+                    Files.createDirectories(configPath.getParent());
+                }
+
+                final Map<String, Object> config = Files.exists(configPath) ? loadConfig(configPath, ngrokVersion) : getDefaultConfig(ngrokVersion);
+                config.put("authtoken", authToken);
+
+                writeConfig(configPath, config);
+
+                return config;
+            } catch (IOException e) {
+                throw new JavaNgrokInstallerException(String.format("An error occurred while setting the auth token in %s.", configPath), e);
+            }
+        });
+    }
+
+    /**
+     * Set the <code>ngrok</code> auth token in the config at each of the given paths, in parallel. See
+     * {@link #setAuthToken(Path, String, NgrokVersion)}.
+     *
+     * @param configPaths  The paths to the <code>ngrok</code> configs.
+     * @param authToken    The auth token.
+     * @param ngrokVersion The major version of <code>ngrok</code> installed.
+     */
+    public void setAuthToken(final Collection<Path> configPaths, final String authToken, final NgrokVersion ngrokVersion) {
+        configPaths.parallelStream().forEach(configPath -> setAuthToken(configPath, authToken, ngrokVersion));
+    }
+
+    private void writeConfig(final Path configPath, final Map<String, Object> config) throws IOException {
+        final StringWriter writer = new StringWriter();
+        // Yaml instances are not thread-safe, and configs may be written in parallel
+        new Yaml().dump(config, writer);
+
+        // A symlinked config is written through, rather than being replaced with a regular file
+        final Path targetPath = Files.exists(configPath) ? configPath.toRealPath() : configPath.toAbsolutePath();
+
+        final Path tmpPath = Files.createTempFile(targetPath.getParent(), targetPath.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmpPath, writer.toString());
+            if (Files.exists(targetPath) && targetPath.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(tmpPath, Files.getPosixFilePermissions(targetPath));
+            }
+            Files.move(tmpPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+    }
+
     /**
      * See {@link #installNgrok(Path, NgrokVersion)}.
      */
@@ -249,21 +310,26 @@ public class NgrokInstaller {
      */
     public Map<String, Object> getNgrokConfig(final Path configPath, final boolean useCache, final NgrokVersion ngrokVersion) {
         final String key = configPath.toString();
-        if (!configCache.containsKey(key) || !useCache) {
-            try {
-                final String config = Files.readString(configPath);
+        if (!useCache) {
+            configCache.put(key, loadConfig(configPath, ngrokVersion));
+        }
 
-                if (isBlank(config)) {
-                    configCache.put(key, getDefaultConfig(ngrokVersion));
-                } else {
-                    configCache.put(key, yaml.load(config));
-                }
-            } catch (IOException | JsonParseException e) {
-                throw new JavaNgrokInstallerException(String.format("An error occurred while parsing the config file: %s", configPath), e);
+        return configCache.computeIfAbsent(key, k -> loadConfig(configPath, ngrokVersion));
+    }
+
+    private Map<String, Object> loadConfig(final Path configPath, final NgrokVersion ngrokVersion) {
+        try {
+            final String config = Files.readString(configPath);
+
+            if (isBlank(config)) {
+                return getDefaultConfig(ngrokVersion);
             }
-        }
 
-        return configCache.get(key);
+            final Map<String, Object> data = new Yaml().load(config);
+            return isNull(data) ? getDefaultConfig(ngrokVersion) : data;
+        } catch (IOException | JsonParseException e) {
+            throw new JavaNgrokInstallerException(String.format("An error occurred while parsing the config file: %s", configPath), e);
+        }
     }
 
     /**
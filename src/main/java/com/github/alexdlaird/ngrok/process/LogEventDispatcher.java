@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.LogEventOverflowPolicy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Delivers log events to the log event callback, either inline or, when
+ * {@link JavaNgrokConfig#getLogEventQueueSize()} is set, through a bounded queue drained on the config's
+ * {@link JavaNgrokConfig#getExecutor() executor}. A drain task is only scheduled while events are queued, and only
+ * one runs at a time, so events are delivered in order.
+ */
+class LogEventDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(LogEventDispatcher.class));
+
+    private final Function<NgrokLog, Void> logEventCallback;
+    private final BlockingQueue<NgrokLog> queue;
+    private final LogEventOverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final Executor executor;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private long overflowedEvents;
+
+    LogEventDispatcher(final JavaNgrokConfig javaNgrokConfig) {
+        this.logEventCallback = javaNgrokConfig.getLogEventCallback();
+        this.queue = javaNgrokConfig.getLogEventQueueSize() > 0
+                ? new ArrayBlockingQueue<>(javaNgrokConfig.getLogEventQueueSize())
+                : null;
+        this.overflowPolicy = javaNgrokConfig.getLogEventOverflowPolicy();
+        this.sampleRate = javaNgrokConfig.getLogEventSampleRate();
+        this.executor = javaNgrokConfig.getExecutor();
+    }
+
+    /**
+     * Deliver the event to the callback, if there is one. Must only be called from a single thread.
+     */
+    void dispatch(final NgrokLog ngrokLog) {
+        if (isNull(logEventCallback)) {
+            return;
+        }
+
+        if (isNull(queue)) {
+            logEventCallback.apply(ngrokLog);
+            return;
+        }
+
+        if (!queue.offer(ngrokLog)) {
+            overflow(ngrokLog);
+        }
+
+        scheduleDrain();
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full.
+     */
+    long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void overflow(final NgrokLog ngrokLog) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                // Make sure the queue is being drained before waiting on it
+                scheduleDrain();
+                try {
+                    queue.put(ngrokLog);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedEvents.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                replaceOldest(ngrokLog);
+                break;
+            case SAMPLE:
+                if (overflowedEvents++ % sampleRate == 0) {
+                    replaceOldest(ngrokLog);
+                } else {
+                    droppedEvents.incrementAndGet();
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                droppedEvents.incrementAndGet();
+        }
+    }
+
+    private void replaceOldest(final NgrokLog ngrokLog) {
+        while (!queue.offer(ngrokLog)) {
+            if (nonNull(queue.poll())) {
+                droppedEvents.incrementAndGet();
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            NgrokLog ngrokLog;
+            while (nonNull(ngrokLog = queue.poll())) {
+                try {
+                    logEventCallback.apply(ngrokLog);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "An error occurred in the log event callback.", e);
+                }
+            }
+
+            draining.set(false);
+
+            // An event may have been queued after the last poll but before the flag was cleared
+        } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An {@link InputStream} that follows a log file as it is written, like <code>tail -f</code>, so a
+ * {@link NgrokProcess.ProcessMonitor} can read a <code>ngrok</code> process's output when it is redirected to a
+ * file. End of stream is only reported once the given condition no longer holds.
+ * <p>
+ * The file must be appended to, so it can be truncated underneath its writer. Once everything has been read and the
+ * file has reached the given max size, it is truncated, like <code>logrotate</code>'s <code>copytruncate</code>,
+ * so following it keeps it bounded. Truncation by another reader is also followed.
+ */
+class LogFileInputStream extends InputStream {
+
+    private static final long MIN_POLL_INTERVAL_MILLIS = 50;
+    private static final long MAX_POLL_INTERVAL_MILLIS = 1000;
+
+    private final FileChannel channel;
+    private final long maxFileSize;
+    private final BooleanSupplier keepReading;
+
+    LogFileInputStream(final Path logPath,
+                       final long maxFileSize,
+                       final BooleanSupplier keepReading) throws IOException {
+        this.channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.maxFileSize = maxFileSize;
+        this.keepReading = keepReading;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+
+        return n == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+
+        // Back off while the file is idle, since ngrok may log nothing for long stretches after startup
+        long pollInterval = MIN_POLL_INTERVAL_MILLIS;
+        while (true) {
+            final int n = channel.read(buffer);
+            if (n > 0) {
+                return n;
+            }
+            if (!keepReading.getAsBoolean()) {
+                // Pick up anything written between the last read and the condition changing
+                return channel.read(buffer);
+            }
+
+            final long position = channel.position();
+            if (channel.size() < position) {
+                channel.position(0);
+                continue;
+            } else if (position >= maxFileSize) {
+                // Anything appended between the last read and here is lost, as with copytruncate
+                channel.truncate(0);
+                channel.position(0);
+                continue;
+            }
+
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+            pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
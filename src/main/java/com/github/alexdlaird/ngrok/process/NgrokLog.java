@@ -23,21 +23,55 @@
 
 package com.github.alexdlaird.ngrok.process;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 import static com.github.alexdlaird.util.StringUtils.isBlank;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.logging.Level.INFO;
 import static java.util.logging.Level.SEVERE;
 import static java.util.logging.Level.WARNING;
 
 /**
  * An object containing a parsed log from the <code>ngrok</code> process.
+ * <p>
+ * Logs read by a {@link NgrokProcess.ProcessMonitor} are parsed lazily: the line is scanned once for where each
+ * field starts and ends, and a field's value is only decoded when it is first accessed. Getting a single field,
+ * through its getter, {@link #get(Object)} or {@link #containsKey(Object)}, decodes only that field, while any other
+ * use of this as a {@link Map} decodes every field. Decoding is thread-safe, so the same log can be read at once by
+ * callers of {@link NgrokProcess.ProcessMonitor#getLogs()} and the log event callback, though changing the log as a
+ * {@link Map} is not.
  */
 public class NgrokLog extends HashMap<String, String> {
 
+    private static final String[] KNOWN_KEYS = {"t", "lvl", "msg", "obj", "err", "addr", "id", "name", "url",
+            "l", "r", "sid", "clientid", "comp", "pg", "dur", "status", "typ"};
+
+    // Each field in the index is four ints: its start, its end, the position of its first "=" (or -1), and flags
+    private static final int INDEX_STRIDE = 4;
+    private static final int START = 0;
+    private static final int END = 1;
+    private static final int SEPARATOR = 2;
+    private static final int FLAGS = 3;
+    // The field contains quotes or escapes, so it must be decoded rather than taken as a substring
+    private static final int ENCODED = 1;
+    // The quote, if any, open at the field's "=", is stored in the flags above this shift
+    private static final int SEPARATOR_QUOTE_SHIFT = 1;
+
+    private static final int T_DECODED = 1;
+    private static final int LVL_DECODED = 1 << 1;
+    private static final int MSG_DECODED = 1 << 2;
+    private static final int ERR_DECODED = 1 << 3;
+    private static final int ADDR_DECODED = 1 << 4;
+
     private final String line;
     private String t;
     private String lvl = INFO.getName();
@@ -45,59 +79,33 @@ public class NgrokLog extends HashMap<String, String> {
     private String err;
     private String addr;
 
+    private volatile int[] index;
+    private int indexSize;
+    private int decodedFields;
+
     /**
      * Parse a String <code>ngrok</code> log to an object representation.
      *
      * @param line The raw log line from <code>ngrok</code>.
      */
     public NgrokLog(final String line) {
-        this.line = line.strip();
-
-        for (final String i : shellSplit(this.line)) {
-            final String[] split = i.split("=", 2);
-            final String key = split[0];
-            String value = "";
-            if (split.length > 1) {
-                value = split[1];
-            }
-
-            if (key.equals("lvl")) {
-                if (isBlank(value)) {
-                    value = this.lvl;
-                }
-
-                value = value.toUpperCase();
-                switch (value) {
-                    case "CRIT":
-                    case "ERR":
-                    case "EROR":
-                        value = SEVERE.getName();
-                        break;
-                    case "WARN":
-                        value = WARNING.getName();
-                        break;
-                }
-            }
+        this(line, false);
+    }
 
-            switch (key) {
-                case "t":
-                    this.t = value;
-                    break;
-                case "lvl":
-                    this.lvl = value;
-                    break;
-                case "msg":
-                    this.msg = value;
-                    break;
-                case "err":
-                    this.err = value;
-                    break;
-                case "addr":
-                    this.addr = value;
-                    break;
-            }
+    /**
+     * Parse a String <code>ngrok</code> log to an object representation, optionally deferring decoding its fields
+     * until they are accessed.
+     *
+     * @param line The raw log line from <code>ngrok</code>.
+     * @param lazy Whether to only index the line's fields, rather than decoding them all now.
+     */
+    NgrokLog(final String line, final boolean lazy) {
+        this.line = line.strip();
 
-            put(key, value);
+        if (lazy) {
+            buildIndex(this.line);
+        } else {
+            parse(this.line);
         }
     }
 
@@ -106,37 +114,387 @@ public class NgrokLog extends HashMap<String, String> {
     }
 
     public String getT() {
+        if (isLazy()) {
+            return decodeField(T_DECODED);
+        }
+
         return t;
     }
 
     public String getLvl() {
+        if (isLazy()) {
+            return decodeField(LVL_DECODED);
+        }
+
         return lvl;
     }
 
     public String getMsg() {
+        if (isLazy()) {
+            return decodeField(MSG_DECODED);
+        }
+
         return msg;
     }
 
     public String getErr() {
+        if (isLazy()) {
+            return decodeField(ERR_DECODED);
+        }
+
         return err;
     }
 
     public String getAddr() {
+        if (isLazy()) {
+            return decodeField(ADDR_DECODED);
+        }
+
         return addr;
     }
 
-    private List<String> shellSplit(final CharSequence line) {
-        final List<String> tokens = new ArrayList<>();
+    @Override
+    public String get(final Object key) {
+        if (isLazy() && key instanceof String) {
+            return key.equals("lvl") ? findLvl(null) : findValue((String) key);
+        }
+
+        return super.get(key);
+    }
+
+    @Override
+    public String getOrDefault(final Object key, final String defaultValue) {
+        if (isLazy() && key instanceof String) {
+            final String value = get(key);
+
+            return nonNull(value) ? value : defaultValue;
+        }
+
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (isLazy() && key instanceof String) {
+            return findField((String) key, 0) >= 0;
+        }
+
+        return super.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        materialize();
+        return super.isEmpty();
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        materialize();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        materialize();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<String> values() {
+        materialize();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        materialize();
+        return super.entrySet();
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super String> action) {
+        materialize();
+        super.forEach(action);
+    }
+
+    @Override
+    public String put(final String key, final String value) {
+        materialize();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ? extends String> m) {
+        materialize();
+        super.putAll(m);
+    }
+
+    @Override
+    public String putIfAbsent(final String key, final String value) {
+        materialize();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String remove(final Object key) {
+        materialize();
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        materialize();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public String replace(final String key, final String value) {
+        materialize();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(final String key, final String oldValue, final String newValue) {
+        materialize();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super String, ? extends String> function) {
+        materialize();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public String computeIfAbsent(final String key, final Function<? super String, ? extends String> mappingFunction) {
+        materialize();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public String computeIfPresent(final String key,
+                                   final BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        materialize();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public String compute(final String key,
+                          final BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        materialize();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(final String key,
+                        final String value,
+                        final BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        materialize();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public void clear() {
+        materialize();
+        super.clear();
+    }
+
+    @Override
+    public Object clone() {
+        materialize();
+        return super.clone();
+    }
+
+    /**
+     * Find the level of a raw <code>ngrok</code> log line without parsing it. The line is scanned with the same
+     * quoting and escaping rules as {@link #parse(String)}, but only the value of each unquoted <code>lvl=</code>
+     * field is looked at, and as when parsing, the last one that is not blank wins. A line without one is
+     * {@link java.util.logging.Level#INFO}, like a parsed log.
+     *
+     * @param line The raw log line from <code>ngrok</code>.
+     * @return The level, or <code>null</code> if it is not one <code>ngrok</code> logs, or is quoted or escaped, so
+     * can only be found by parsing the line.
+     */
+    static Level scanLvl(final String line) {
+        int start = -1;
+        int end = -1;
+
+        boolean tokenStart = true;
+        boolean escaping = false;
+        char quoteChar = ' ';
+        boolean quoting = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (tokenStart) {
+                tokenStart = false;
+
+                if (c == '\\' || c == '\'' || c == '"') {
+                    // The key itself is encoded, so may be "lvl"
+                    return null;
+                } else if (line.startsWith("lvl=", i)) {
+                    int valueEnd = i + 4;
+                    while (valueEnd < line.length() && !Character.isWhitespace(line.charAt(valueEnd))) {
+                        final char v = line.charAt(valueEnd);
+                        if (v == '\\' || v == '\'' || v == '"') {
+                            return null;
+                        }
+                        ++valueEnd;
+                    }
+
+                    if (valueEnd > i + 4) {
+                        start = i + 4;
+                        end = valueEnd;
+                    }
+
+                    // Resume at the whitespace after the value, if any
+                    i = valueEnd - 1;
+                    continue;
+                }
+            }
+
+            if (escaping) {
+                escaping = false;
+            } else if (c == '\\' && !(quoting && quoteChar == '\'')) {
+                escaping = true;
+            } else if (quoting && c == quoteChar) {
+                quoting = false;
+            } else if (!quoting && (c == '\'' || c == '"')) {
+                quoting = true;
+                quoteChar = c;
+            } else if (!quoting && Character.isWhitespace(c)) {
+                tokenStart = true;
+            }
+        }
+        if (start < 0) {
+            return Level.INFO;
+        }
+
+        switch (end - start) {
+            case 3:
+                return lvlMatches(line, start, "err") ? Level.SEVERE : null;
+            case 4:
+                if (lvlMatches(line, start, "crit") || lvlMatches(line, start, "eror")) {
+                    return Level.SEVERE;
+                } else if (lvlMatches(line, start, "warn")) {
+                    return Level.WARNING;
+                } else if (lvlMatches(line, start, "info")) {
+                    return Level.INFO;
+                } else if (lvlMatches(line, start, "dbug")) {
+                    return Level.FINE;
+                }
+                return null;
+            case 5:
+                return lvlMatches(line, start, "debug") ? Level.FINE : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean lvlMatches(final String line,
+                                      final int start,
+                                      final String lvl) {
+        return line.regionMatches(true, start, lvl, 0, lvl.length());
+    }
+
+    private boolean isLazy() {
+        return nonNull(index);
+    }
+
+    /**
+     * Decode one of the fields that has a getter, if this was parsed lazily and that has not yet been done, and
+     * return its value. This is done under the same lock as {@link #materialize()}, and the value is read before
+     * releasing it, so a log can be read from several threads at once.
+     */
+    private synchronized String decodeField(final int field) {
+        if (isLazy() && (decodedFields & field) == 0) {
+            switch (field) {
+                case T_DECODED:
+                    t = findValue("t");
+                    break;
+                case LVL_DECODED:
+                    lvl = findLvl(INFO.getName());
+                    break;
+                case MSG_DECODED:
+                    msg = findValue("msg");
+                    break;
+                case ERR_DECODED:
+                    err = findValue("err");
+                    break;
+                case ADDR_DECODED:
+                    addr = findValue("addr");
+                    break;
+            }
+            decodedFields |= field;
+        }
+
+        switch (field) {
+            case T_DECODED:
+                return t;
+            case LVL_DECODED:
+                return lvl;
+            case MSG_DECODED:
+                return msg;
+            case ERR_DECODED:
+                return err;
+            default:
+                return addr;
+        }
+    }
+
+    /**
+     * Decode every field in to the map, if this was parsed lazily and that has not yet been done.
+     */
+    private void materialize() {
+        if (!isLazy()) {
+            return;
+        }
+
+        synchronized (this) {
+            final int[] currentIndex = index;
+            if (isNull(currentIndex)) {
+                return;
+            }
+
+            // A blank level keeps the one before it, so levels are applied in order from the default
+            lvl = INFO.getName();
+            for (int i = 0; i < indexSize; i += INDEX_STRIDE) {
+                putField(decodeKey(currentIndex, i), decodeValue(currentIndex, i));
+            }
+
+            decodedFields = T_DECODED | LVL_DECODED | MSG_DECODED | ERR_DECODED | ADDR_DECODED;
+
+            // Cleared last, so other threads only stop using the index once the map is complete
+            index = null;
+        }
+    }
+
+    /**
+     * Split the line in to shell-like tokens, honoring quotes and escapes, and put each as a key/value pair split on
+     * its first unescaped or quoted <code>=</code>. This is done in a single pass, decoding each token in to one
+     * reused buffer, without building an intermediate list of tokens.
+     */
+    private void parse(final String line) {
+        final StringBuilder token = new StringBuilder(Math.min(line.length(), 256));
+        int separator = -1;
 
         boolean escaping = false;
         char quoteChar = ' ';
         boolean quoting = false;
         int lastCloseQuoteIndex = Integer.MIN_VALUE;
-        StringBuilder current = new StringBuilder();
         for (int i = 0; i < line.length(); i++) {
             final char c = line.charAt(i);
             if (escaping) {
-                current.append(c);
+                if (c == '=' && separator < 0) {
+                    separator = token.length();
+                }
+                token.append(c);
                 escaping = false;
             } else if (c == '\\' && !(quoting && quoteChar == '\'')) {
                 escaping = true;
@@ -147,19 +505,325 @@ public class NgrokLog extends HashMap<String, String> {
                 quoting = true;
                 quoteChar = c;
             } else if (!quoting && Character.isWhitespace(c)) {
-                if (current.length() > 0 || lastCloseQuoteIndex == (i - 1)) {
-                    tokens.add(current.toString());
-                    current = new StringBuilder();
+                if (token.length() > 0 || lastCloseQuoteIndex == (i - 1)) {
+                    putToken(token, separator);
+                    token.setLength(0);
+                    separator = -1;
                 }
             } else {
-                current.append(c);
+                if (c == '=' && separator < 0) {
+                    separator = token.length();
+                }
+                token.append(c);
             }
         }
 
-        if (current.length() > 0 || lastCloseQuoteIndex == (line.length() - 1)) {
-            tokens.add(current.toString());
+        if (token.length() > 0 || lastCloseQuoteIndex == (line.length() - 1)) {
+            putToken(token, separator);
+        }
+    }
+
+    /**
+     * Scan the line with the same rules as {@link #parse(String)}, but only record where each field starts and
+     * ends, and where its first <code>=</code> is, rather than decoding it.
+     */
+    private void buildIndex(final String line) {
+        int[] fields = new int[8 * INDEX_STRIDE];
+        int size = 0;
+
+        int start = -1;
+        int separator = -1;
+        int separatorQuote = 0;
+        int decodedLength = 0;
+        boolean encoded = false;
+
+        boolean escaping = false;
+        char quoteChar = ' ';
+        boolean quoting = false;
+        int lastCloseQuoteIndex = Integer.MIN_VALUE;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            final boolean appended;
+            if (escaping) {
+                appended = true;
+                escaping = false;
+            } else if (c == '\\' && !(quoting && quoteChar == '\'')) {
+                appended = false;
+                escaping = true;
+                encoded = true;
+            } else if (quoting && c == quoteChar) {
+                appended = false;
+                quoting = false;
+                lastCloseQuoteIndex = i;
+            } else if (!quoting && (c == '\'' || c == '"')) {
+                appended = false;
+                quoting = true;
+                quoteChar = c;
+                encoded = true;
+            } else if (!quoting && Character.isWhitespace(c)) {
+                if (decodedLength > 0 || lastCloseQuoteIndex == (i - 1)) {
+                    if (size == fields.length) {
+                        fields = Arrays.copyOf(fields, size * 2);
+                    }
+                    size = addField(fields, size, start, i, separator, encoded, separatorQuote);
+                }
+
+                start = -1;
+                separator = -1;
+                decodedLength = 0;
+                encoded = false;
+                continue;
+            } else {
+                appended = true;
+            }
+
+            if (start < 0) {
+                start = i;
+            }
+            if (appended) {
+                if (c == '=' && separator < 0) {
+                    separator = i;
+                    separatorQuote = quoting ? quoteChar : 0;
+                }
+                ++decodedLength;
+            }
+        }
+
+        if (decodedLength > 0 || lastCloseQuoteIndex == (line.length() - 1)) {
+            if (size == fields.length) {
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            size = addField(fields, size, start, line.length(), separator, encoded, separatorQuote);
+        }
+
+        this.indexSize = size;
+        this.index = fields;
+    }
+
+    private static int addField(final int[] fields,
+                                final int size,
+                                final int start,
+                                final int end,
+                                final int separator,
+                                final boolean encoded,
+                                final int separatorQuote) {
+        fields[size + START] = start;
+        fields[size + END] = end;
+        fields[size + SEPARATOR] = separator;
+        fields[size + FLAGS] = (encoded ? ENCODED : 0) | (separatorQuote << SEPARATOR_QUOTE_SHIFT);
+
+        return size + INDEX_STRIDE;
+    }
+
+    /**
+     * Find the index of the first field with the given key at or after <code>from</code>, or <code>-1</code>.
+     */
+    private int findField(final String key, final int from) {
+        final int[] currentIndex = index;
+        if (isNull(currentIndex)) {
+            return super.containsKey(key) ? 0 : -1;
+        }
+
+        for (int i = from; i < indexSize; i += INDEX_STRIDE) {
+            if (keyMatches(currentIndex, i, key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the decoded value of the last field with the given key, as later fields replace earlier ones, or
+     * <code>null</code> if there is none.
+     */
+    private String findValue(final String key) {
+        final int[] currentIndex = index;
+        if (isNull(currentIndex)) {
+            return super.get(key);
+        }
+
+        for (int i = indexSize - INDEX_STRIDE; i >= 0; i -= INDEX_STRIDE) {
+            if (keyMatches(currentIndex, i, key)) {
+                return decodeValue(currentIndex, i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the normalized level, applying each <code>lvl</code> field in order, as a blank one keeps the level
+     * before it.
+     */
+    private String findLvl(final String defaultValue) {
+        final int[] currentIndex = index;
+        if (isNull(currentIndex)) {
+            return isNull(defaultValue) ? super.get("lvl") : lvl;
+        }
+
+        String value = defaultValue;
+        for (int i = 0; i < indexSize; i += INDEX_STRIDE) {
+            if (keyMatches(currentIndex, i, "lvl")) {
+                value = normalizeLvl(decodeValue(currentIndex, i), isNull(value) ? INFO.getName() : value);
+            }
+        }
+
+        return value;
+    }
+
+    private boolean keyMatches(final int[] fields,
+                               final int field,
+                               final String key) {
+        final int start = fields[field + START];
+        final int keyEnd = fields[field + SEPARATOR] < 0 ? fields[field + END] : fields[field + SEPARATOR];
+
+        if ((fields[field + FLAGS] & ENCODED) == 0) {
+            return keyEnd - start == key.length() && line.regionMatches(start, key, 0, key.length());
+        }
+
+        return key.contentEquals(decode(start, keyEnd, 0));
+    }
+
+    private String decodeKey(final int[] fields,
+                             final int field) {
+        final int start = fields[field + START];
+        final int keyEnd = fields[field + SEPARATOR] < 0 ? fields[field + END] : fields[field + SEPARATOR];
+
+        if ((fields[field + FLAGS] & ENCODED) == 0) {
+            return toKey(line, start, keyEnd);
+        }
+
+        final StringBuilder key = decode(start, keyEnd, 0);
+        return toKey(key, 0, key.length());
+    }
+
+    private String decodeValue(final int[] fields,
+                               final int field) {
+        final int separator = fields[field + SEPARATOR];
+        if (separator < 0) {
+            return "";
+        }
+
+        if ((fields[field + FLAGS] & ENCODED) == 0) {
+            return line.substring(separator + 1, fields[field + END]);
+        }
+
+        return decode(separator + 1, fields[field + END], fields[field + FLAGS] >>> SEPARATOR_QUOTE_SHIFT).toString();
+    }
+
+    /**
+     * Decode part of a field, starting inside the given quote, or <code>0</code> if none.
+     */
+    private StringBuilder decode(final int start,
+                                 final int end,
+                                 final int quote) {
+        final StringBuilder decoded = new StringBuilder(end - start);
+
+        boolean escaping = false;
+        char quoteChar = (char) quote;
+        boolean quoting = quote != 0;
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if (escaping) {
+                decoded.append(c);
+                escaping = false;
+            } else if (c == '\\' && !(quoting && quoteChar == '\'')) {
+                escaping = true;
+            } else if (quoting && c == quoteChar) {
+                quoting = false;
+            } else if (!quoting && (c == '\'' || c == '"')) {
+                quoting = true;
+                quoteChar = c;
+            } else {
+                decoded.append(c);
+            }
+        }
+
+        return decoded;
+    }
+
+    private void putToken(final StringBuilder token,
+                          final int separator) {
+        final String key = toKey(token, 0, separator < 0 ? token.length() : separator);
+        final String value = separator < 0 ? "" : token.substring(separator + 1);
+
+        putField(key, value);
+    }
+
+    private void putField(final String key,
+                          final String rawValue) {
+        String value = rawValue;
+        if (key.equals("lvl")) {
+            value = normalizeLvl(value, this.lvl);
+        }
+
+        switch (key) {
+            case "t":
+                this.t = value;
+                break;
+            case "lvl":
+                this.lvl = value;
+                break;
+            case "msg":
+                this.msg = value;
+                break;
+            case "err":
+                this.err = value;
+                break;
+            case "addr":
+                this.addr = value;
+                break;
+        }
+
+        super.put(key, value);
+    }
+
+    private static String normalizeLvl(final String rawValue,
+                                       final String previousLvl) {
+        String value = rawValue;
+        if (isBlank(value)) {
+            value = previousLvl;
+        }
+
+        value = value.toUpperCase();
+        switch (value) {
+            case "CRIT":
+            case "ERR":
+            case "EROR":
+                return SEVERE.getName();
+            case "WARN":
+                return WARNING.getName();
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Get the key in the given range, reusing the constant for keys <code>ngrok</code> commonly logs rather than
+     * allocating a new String for each.
+     */
+    private static String toKey(final CharSequence chars,
+                                final int start,
+                                final int end) {
+        for (final String knownKey : KNOWN_KEYS) {
+            if (knownKey.length() == end - start && regionMatches(chars, start, knownKey)) {
+                return knownKey;
+            }
+        }
+
+        return chars.subSequence(start, end).toString();
+    }
+
+    private static boolean regionMatches(final CharSequence chars,
+                                         final int start,
+                                         final String key) {
+        for (int i = 0; i < key.length(); ++i) {
+            if (chars.charAt(start + i) != key.charAt(i)) {
+                return false;
+            }
         }
 
-        return Collections.unmodifiableList(tokens);
+        return true;
     }
 }
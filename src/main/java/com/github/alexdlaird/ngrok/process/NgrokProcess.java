@@ -23,27 +23,46 @@
 
 package com.github.alexdlaird.ngrok.process;
 
+import com.github.alexdlaird.exception.JavaNgrokInstallerException;
 import com.github.alexdlaird.exception.JavaNgrokSecurityException;
 import com.github.alexdlaird.exception.NgrokException;
 import com.github.alexdlaird.http.DefaultHttpClient;
 import com.github.alexdlaird.http.HttpClient;
+import com.github.alexdlaird.http.HttpClientException;
 import com.github.alexdlaird.http.Response;
 import com.github.alexdlaird.ngrok.NgrokClient;
 import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.Readiness;
 import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
 import com.github.alexdlaird.ngrok.installer.NgrokVersion;
 import com.github.alexdlaird.ngrok.protocol.Tunnels;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import static com.github.alexdlaird.util.StringUtils.isBlank;
 import static java.net.HttpURLConnection.HTTP_OK;
@@ -63,11 +82,21 @@ public class NgrokProcess {
     private final NgrokInstaller ngrokInstaller;
     private Process process;
     private ProcessMonitor processMonitor;
+    private CompletableFuture<Void> startFuture;
+    private CompletableFuture<Void> exitFuture;
+    private volatile String attachedApiUrl;
+    private volatile boolean stopping;
+    private final SharedProcessFile sharedProcessFile;
+    private final String sharedHolderToken = SharedProcessFile.createHolderToken(UUID.randomUUID().toString());
+    private boolean sharedHolder;
+    private Path webAddrConfigPath;
+    private final VersionCache versionCache;
 
     /**
      * If <code>ngrok</code> is not already installed at {@link JavaNgrokConfig#getNgrokPath()}, the given
      * {@link NgrokInstaller} will install it. This will also provision a default <code>ngrok</code> config
-     * at {@link JavaNgrokConfig#getConfigPath()}, if none exists.
+     * at {@link JavaNgrokConfig#getConfigPath()}, if none exists. Neither is done if
+     * {@link JavaNgrokConfig#getApiUrl()} is set, since an already running <code>ngrok</code> will be attached to.
      *
      * @param javaNgrokConfig The <code>java-ngrok</code> to use when interacting with the <code>ngrok</code> binary.
      * @param ngrokInstaller  The class used to download and install <code>ngrok</code>.
@@ -76,6 +105,12 @@ public class NgrokProcess {
                         final NgrokInstaller ngrokInstaller) {
         this.javaNgrokConfig = javaNgrokConfig;
         this.ngrokInstaller = ngrokInstaller;
+        this.sharedProcessFile = javaNgrokConfig.isSharedProcess() ? new SharedProcessFile(javaNgrokConfig.getConfigPath()) : null;
+        this.versionCache = new VersionCache(javaNgrokConfig.getVersionCachePath());
+
+        if (nonNull(javaNgrokConfig.getApiUrl())) {
+            return;
+        }
 
         if (!Files.exists(javaNgrokConfig.getNgrokPath())) {
             ngrokInstaller.installNgrok(javaNgrokConfig.getNgrokPath(), javaNgrokConfig.getNgrokVersion());
@@ -91,30 +126,215 @@ public class NgrokProcess {
      * destroy tunnels.
      */
     public void start() {
-        if (isRunning()) {
-            return;
+        try {
+            startAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            stop();
+
+            throw new NgrokException("Interrupted while waiting for ngrok to start.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new NgrokException("An error occurred while starting ngrok.", e.getCause());
+        }
+    }
+
+    /**
+     * If not already running, start a <code>ngrok</code> process with no tunnels without blocking the calling
+     * thread. The returned future completes once the <code>ngrok</code> web interface is healthy, or completes
+     * exceptionally with the same {@link NgrokException} (including logs and the startup error, if any) that
+     * {@link #start()} would have thrown.
+     * <p>
+     * If a start is already in progress, its future is returned.
+     * <p>
+     * If {@link JavaNgrokConfig#isSharedProcess()} is set, this will attach to the <code>ngrok</code> process
+     * another JVM on this host has already started from the same config, if there is one.
+     *
+     * <pre>
+     * final CompletableFuture&lt;Void&gt; ngrokStarted = ngrokProcess.startAsync();
+     *
+     * // ... boot other subsystems while ngrok starts
+     *
+     * ngrokStarted.join();
+     * </pre>
+     *
+     * @return A future that completes when <code>ngrok</code> has started.
+     */
+    public synchronized CompletableFuture<Void> startAsync() {
+        if (isRunning() || (nonNull(startFuture) && !startFuture.isDone())) {
+            return nonNull(startFuture) ? startFuture : CompletableFuture.completedFuture(null);
+        }
+
+        stopping = false;
+
+        if (nonNull(javaNgrokConfig.getApiUrl())) {
+            try {
+                attach(javaNgrokConfig.getApiUrl());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            startFuture = CompletableFuture.completedFuture(null);
+            return startFuture;
+        }
+
+        if (nonNull(sharedProcessFile)) {
+            startFuture = CompletableFuture.runAsync(this::startShared, javaNgrokConfig.getExecutor());
+            return startFuture;
         }
 
+        final ProcessMonitor startingProcessMonitor;
+        try {
+            startingProcessMonitor = launchProcess(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        startFuture = startingProcessMonitor.getStartupFuture()
+                .orTimeout(javaNgrokConfig.getStartupTime(), TimeUnit.SECONDS)
+                .handleAsync((result, throwable) -> {
+                    if (throwable instanceof TimeoutException) {
+                        LOGGER.fine(String.format("ngrok process did not finish starting within %s seconds", javaNgrokConfig.getStartupTime()));
+                    } else if (nonNull(throwable)) {
+                        LOGGER.log(Level.FINE, "An error occurred in the ngrok process while starting", throwable);
+                    }
+
+                    confirmStartup(startingProcessMonitor);
+
+                    return null;
+                }, javaNgrokConfig.getExecutor());
+
+        return startFuture;
+    }
+
+    private void startShared() {
+        // The host-wide lock is held until the process is published, so other JVMs wait on it rather than
+        // starting their own, but this is only synchronized while it launches, so a stop is not held up by startup.
+        // Until it is published, a stop kills the launched process without the host-wide lock.
+        sharedProcessFile.withLock(() -> {
+            final ProcessMonitor startingProcessMonitor;
+            synchronized (this) {
+                if (stopping) {
+                    throw new NgrokException("ngrok was stopped while starting.");
+                }
+
+                final SharedProcessFile.State state = sharedProcessFile.read();
+                if (nonNull(state) && state.isProcessAlive()) {
+                    try {
+                        attach(state.apiUrl);
+
+                        // The JVM that started the process may no longer be following its log
+                        sharedProcessFile.truncateLog(javaNgrokConfig.getDrainMaxFileSize());
+
+                        state.holders.add(sharedHolderToken);
+                        sharedProcessFile.write(state);
+                        sharedHolder = true;
+                        ProcessShutdownHook.register(this);
+
+                        return null;
+                    } catch (NgrokException e) {
+                        LOGGER.log(Level.FINE, "Unable to attach to the shared ngrok process, starting a new one", e);
+                    }
+                }
+
+                // Output of a previous shared process is not needed by this one
+                sharedProcessFile.truncateLog(0);
+
+                startingProcessMonitor = launchProcess(sharedProcessFile.getLogPath());
+            }
+
+            awaitStartup(startingProcessMonitor);
+
+            synchronized (this) {
+                // If stopped while starting, the process is no longer healthy, so this fails
+                confirmStartup(startingProcessMonitor);
+
+                final Set<String> holders = new LinkedHashSet<>();
+                holders.add(sharedHolderToken);
+                sharedProcessFile.write(new SharedProcessFile.State(process.pid(), startingProcessMonitor.apiUrl, holders));
+                sharedHolder = true;
+            }
+
+            return null;
+        });
+    }
+
+    private void awaitStartup(final ProcessMonitor startingProcessMonitor) {
+        try {
+            startingProcessMonitor.getStartupFuture().get(javaNgrokConfig.getStartupTime(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.fine(String.format("ngrok process did not finish starting within %s seconds", javaNgrokConfig.getStartupTime()));
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "An error occurred in the ngrok process while starting", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            stop();
+
+            throw new NgrokException("Interrupted while waiting for ngrok to start.", e);
+        }
+    }
+
+    private void attach(final String apiUrl) {
+        LOGGER.info(String.format("Attaching to ngrok process with API URL: %s", apiUrl));
+
+        final Response<Tunnels> tunnelsResponse;
+        try {
+            tunnelsResponse = new DefaultHttpClient.Builder().build().get(String.format("%s/api/tunnels", apiUrl), Tunnels.class);
+        } catch (HttpClientException e) {
+            throw new NgrokException(String.format("Unable to attach to the ngrok process at %s.", apiUrl), e);
+        }
+        if (tunnelsResponse.getStatusCode() != HTTP_OK) {
+            throw new NgrokException(String.format("Unable to attach to the ngrok process at %s, its API responded with %s.", apiUrl, tunnelsResponse.getStatusCode()));
+        }
+
+        attachedApiUrl = apiUrl;
+    }
+
+    private ProcessMonitor launchProcess(final Path logPath) {
+        final StartupTimings startupTimings = new StartupTimings();
+
         if (!Files.exists(javaNgrokConfig.getNgrokPath())) {
             throw new NgrokException(String.format("ngrok binary was not found. " +
                     "Be sure to call \"NgrokInstaller.installNgrok()\" first for \"ngrokPath\": %s", javaNgrokConfig.getNgrokPath()));
         }
         ngrokInstaller.validateConfig(javaNgrokConfig.getConfigPath());
+        startupTimings.record(StartupTimings.Phase.CONFIG_VALIDATED);
 
         final ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.redirectErrorStream(true);
         processBuilder.inheritIO().redirectOutput(ProcessBuilder.Redirect.PIPE);
+        if (nonNull(logPath)) {
+            // The process may outlive this JVM, so its output cannot be piped to it. It is appended to, so the file
+            // can be truncated while the process is still writing to it.
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(logPath.toFile()));
+        }
 
         final List<String> command = new ArrayList<>();
         command.add(javaNgrokConfig.getNgrokPath().toString());
         command.add("start");
-        command.add("--none");
+        if (javaNgrokConfig.isStartAllTunnels()) {
+            command.add("--all");
+        } else if (!javaNgrokConfig.getStartTunnels().isEmpty()) {
+            command.addAll(javaNgrokConfig.getStartTunnels());
+        } else {
+            command.add("--none");
+        }
         command.add("--log=stdout");
 
         if (nonNull(javaNgrokConfig.getConfigPath())) {
             LOGGER.info(String.format("Starting ngrok with config file: %s", javaNgrokConfig.getConfigPath()));
             command.add(String.format("--config=%s", javaNgrokConfig.getConfigPath().toString()));
         }
+        final String webAddr = resolveWebAddr();
+        if (nonNull(webAddr)) {
+            LOGGER.info(String.format("Starting ngrok with web_addr: %s", webAddr));
+            command.add(String.format("--config=%s", installWebAddrConfig(webAddr)));
+        }
         if (nonNull(javaNgrokConfig.getAuthToken())) {
             LOGGER.info("Overriding default auth token");
             command.add(String.format("--authtoken=%s", javaNgrokConfig.getAuthToken()));
@@ -127,69 +347,365 @@ public class NgrokProcess {
         processBuilder.command(command);
         try {
             process = processBuilder.start();
-            Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+            startupTimings.record(StartupTimings.Phase.PROCESS_SPAWNED);
+            // The web_addr config is also deleted when ngrok exits on its own, or is abandoned, not only when stopped
+            final Path launchedWebAddrConfigPath = webAddrConfigPath;
+            exitFuture = process.onExit().thenApply(exitedProcess -> {
+                if (nonNull(launchedWebAddrConfigPath)) {
+                    deleteWebAddrConfig(launchedWebAddrConfigPath);
+                }
+
+                return null;
+            });
+            ProcessShutdownHook.register(this);
 
             LOGGER.fine(String.format("ngrok process starting with PID: %s", process.pid()));
 
-            processMonitor = new ProcessMonitor(process, javaNgrokConfig);
-            new Thread(processMonitor).start();
+            processMonitor = new ProcessMonitor(process, javaNgrokConfig, new DefaultHttpClient.Builder().build(), logPath, startupTimings);
+            processMonitor.expectedTunnels = getExpectedTunnels();
+            if (nonNull(webAddr)) {
+                // The API URL is known up front, so it does not have to be scraped from the logs
+                processMonitor.probeWebService(String.format("http://%s", webAddr));
+            }
+            if (javaNgrokConfig.isMultiplexedOutput() && isNull(logPath)) {
+                processMonitor.register(OutputMultiplexer.getDefault(javaNgrokConfig.getThreadFactory()));
+            } else {
+                javaNgrokConfig.getThreadFactory().newThread(processMonitor).start();
+            }
 
-            final Calendar timeout = Calendar.getInstance();
-            timeout.add(Calendar.SECOND, javaNgrokConfig.getStartupTime());
-            while (Calendar.getInstance().before(timeout)) {
-                if (processMonitor.isHealthy()) {
-                    LOGGER.info(String.format("ngrok process has started with API URL: %s", processMonitor.apiUrl));
+            return processMonitor;
+        } catch (IOException e) {
+            throw new NgrokException("An error occurred while starting ngrok.", e);
+        }
+    }
 
-                    processMonitor.startupError = null;
+    private Set<String> getExpectedTunnels() {
+        if (!javaNgrokConfig.isStartAllTunnels()) {
+            return Set.copyOf(javaNgrokConfig.getStartTunnels());
+        }
 
-                    break;
-                } else if (!process.isAlive()) {
-                    break;
-                }
+        final Object tunnels = ngrokInstaller.getNgrokConfig(javaNgrokConfig.getConfigPath(), false, javaNgrokConfig.getNgrokVersion()).get("tunnels");
+        if (tunnels instanceof Map) {
+            return ((Map<?, ?>) tunnels).keySet().stream().map(String::valueOf).collect(Collectors.toSet());
+        }
+
+        return Set.of();
+    }
+
+    private String resolveWebAddr() {
+        final String webAddr = javaNgrokConfig.getWebAddr();
+        if (isNull(webAddr) || !webAddr.endsWith(":0")) {
+            return webAddr;
+        }
+
+        return String.format("%s:%s", webAddr.substring(0, webAddr.length() - 2), findFreePort());
+    }
+
+    /**
+     * Write the <code>web_addr</code> to a config file of its own, which <code>ngrok</code> merges over
+     * {@link JavaNgrokConfig#getConfigPath()}, so the user's config is left untouched.
+     */
+    private Path installWebAddrConfig(final String webAddr) {
+        deleteWebAddrConfig();
+
+        final StringBuilder config = new StringBuilder();
+        if (javaNgrokConfig.getNgrokVersion() == NgrokVersion.V3) {
+            config.append("version: \"2\"\n");
+        }
+        config.append(String.format("web_addr: %s\n", webAddr));
+
+        try {
+            webAddrConfigPath = Files.createTempFile("ngrok-web-addr", ".yml");
+            Files.writeString(webAddrConfigPath, config.toString());
+
+            return webAddrConfigPath;
+        } catch (IOException e) {
+            throw new NgrokException("An error occurred while writing the ngrok web_addr config.", e);
+        }
+    }
+
+    /**
+     * Get the config file the <code>web_addr</code> of the current process was written to, if any.
+     */
+    Path getWebAddrConfigPath() {
+        return webAddrConfigPath;
+    }
+
+    private void deleteWebAddrConfig() {
+        if (isNull(webAddrConfigPath)) {
+            return;
+        }
+
+        deleteWebAddrConfig(webAddrConfigPath);
+
+        webAddrConfigPath = null;
+    }
+
+    private static void deleteWebAddrConfig(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Unable to delete the ngrok web_addr config", e);
+        }
+    }
+
+    /**
+     * Find a port that is free on the loopback interface.
+     */
+    static int findFreePort() {
+        try (final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return serverSocket.getLocalPort();
+        } catch (IOException e) {
+            throw new NgrokException("Unable to find a free port for the ngrok web service.", e);
+        }
+    }
+
+    private void confirmStartup(final ProcessMonitor startingProcessMonitor) {
+        final boolean healthy = startingProcessMonitor.isHealthy();
+        if (healthy) {
+            startingProcessMonitor.startupTimings.record(StartupTimings.Phase.HEALTH_CONFIRMED);
+        }
+
+        LOGGER.fine(String.format("ngrok process startup timings: %s", startingProcessMonitor.startupTimings));
+        if (nonNull(javaNgrokConfig.getStartupTimingsCallback())) {
+            try {
+                javaNgrokConfig.getStartupTimingsCallback().apply(startingProcessMonitor.startupTimings);
+            } catch (RuntimeException e) {
+                // A failing metrics callback must not fail an ngrok process that started
+                LOGGER.log(Level.WARNING, "An error occurred in the startup timings callback", e);
             }
+        }
 
-            if (!processMonitor.isHealthy()) {
-                // If the process did not come up in a healthy state, clean up the state
-                stop();
+        if (healthy) {
+            LOGGER.info(String.format("ngrok process has started with API URL: %s", startingProcessMonitor.apiUrl));
 
-                if (nonNull(processMonitor.startupError)) {
-                    throw new NgrokException(String.format("The ngrok process errored on start: %s.", processMonitor.startupError),
-                            processMonitor.logs,
-                            processMonitor.startupError);
-                } else {
-                    throw new NgrokException("The ngrok process was unable to start.", processMonitor.logs);
-                }
+            startingProcessMonitor.startupError = null;
+        } else {
+            // If the process did not come up in a healthy state, clean up the state
+            stop();
+
+            if (nonNull(startingProcessMonitor.startupError)) {
+                throw new NgrokException(String.format("The ngrok process errored on start: %s.", startingProcessMonitor.startupError),
+                        startingProcessMonitor.getLogs(),
+                        startingProcessMonitor.startupError);
+            } else {
+                throw new NgrokException("The ngrok process was unable to start.", startingProcessMonitor.getLogs());
             }
-        } catch (IOException e) {
-            throw new NgrokException("An error occurred while starting ngrok.", e);
         }
     }
 
     /**
-     * Check if this object is currently managing a running <code>ngrok</code> process.
+     * Block until <code>ngrok</code>'s remote session is established, which {@link #start()} does not wait for
+     * with {@link Readiness#API}. Returns immediately if the session is already established, or if attached to an
+     * already running <code>ngrok</code>.
+     *
+     * @throws NgrokException The session was not established within the startup timeout.
+     */
+    public void awaitSession() {
+        final ProcessMonitor currentProcessMonitor = processMonitor;
+        if (nonNull(attachedApiUrl) || isNull(currentProcessMonitor) || currentProcessMonitor.isSessionEstablished()) {
+            return;
+        }
+
+        try {
+            currentProcessMonitor.getSessionFuture().get(javaNgrokConfig.getStartupTime(), TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            LOGGER.log(Level.FINE, "ngrok session was not established", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new NgrokException("Interrupted while waiting for the ngrok session.", e);
+        }
+
+        if (!currentProcessMonitor.isSessionEstablished()) {
+            if (nonNull(currentProcessMonitor.startupError)) {
+                throw new NgrokException(String.format("The ngrok process errored establishing its session: %s.", currentProcessMonitor.startupError),
+                        currentProcessMonitor.getLogs(),
+                        currentProcessMonitor.startupError);
+            } else {
+                throw new NgrokException("The ngrok process was unable to establish its session.", currentProcessMonitor.getLogs());
+            }
+        }
+    }
+
+    /**
+     * Check if this object is currently managing a running <code>ngrok</code> process, or is attached to one.
      */
     public boolean isRunning() {
-        return nonNull(process) && process.isAlive();
+        return nonNull(attachedApiUrl) || (nonNull(process) && process.isAlive());
+    }
+
+    /**
+     * Check if this object has been asked to stop its <code>ngrok</code> process since it was last started, either
+     * by {@link #stop()} or because the JVM is shutting down. If so, the process exiting is expected, not a failure.
+     */
+    public boolean isStopping() {
+        return stopping || ProcessShutdownHook.isShuttingDown();
+    }
+
+    /**
+     * Get a future that completes when the currently running <code>ngrok</code> process exits, whether it
+     * was stopped or exited on its own.
+     *
+     * @return The future, or <code>null</code> if no process is running or this is attached to one.
+     */
+    public synchronized CompletableFuture<Void> onExit() {
+        if (nonNull(attachedApiUrl) || !isRunning()) {
+            return null;
+        }
+
+        return exitFuture;
     }
 
     /**
      * Terminate the <code>ngrok</code> processes, if running. This method will not block, it will
-     * just issue a kill request.
+     * just issue a kill request, which is escalated to a forcible kill if the process has not exited within
+     * {@link JavaNgrokConfig#getStopTimeout()}. If attached to an already running <code>ngrok</code> with
+     * {@link JavaNgrokConfig#getApiUrl()}, this only detaches from it and leaves it running. If the process is
+     * shared with {@link JavaNgrokConfig#isSharedProcess()}, it is only terminated when its last holder on this
+     * host stops it.
+     */
+    public synchronized void stop() {
+        stopAsync(Duration.ofSeconds(javaNgrokConfig.getStopTimeout()));
+    }
+
+    /**
+     * Terminate the <code>ngrok</code> processes, if running, the same as {@link #stop()}. The returned future
+     * completes once the processes have exited, and so have released the ports they were bound to. If they have not
+     * exited gracefully within the given timeout, they are killed forcibly.
+     *
+     * @param timeout The max time to wait for the processes to exit gracefully.
+     * @return A future that completes when the processes have exited.
      */
-    public void stop() {
+    public synchronized CompletableFuture<Void> stopAsync(final Duration timeout) {
+        stopping = true;
+        ProcessShutdownHook.deregister(this);
+
+        if (sharedHolder) {
+            return releaseShared(timeout);
+        }
+
+        if (nonNull(attachedApiUrl)) {
+            LOGGER.info(String.format("Detaching from ngrok process with API URL: %s", attachedApiUrl));
+
+            attachedApiUrl = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
         if (!isRunning()) {
             LOGGER.info(String.format("\"ngrokPath\" %s is not running a process", javaNgrokConfig.getNgrokPath()));
 
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return killProcess(timeout);
+    }
+
+    private CompletableFuture<Void> releaseShared(final Duration timeout) {
+        return sharedProcessFile.withLock(() -> {
+            sharedHolder = false;
+
+            CompletableFuture<Void> sharedExitFuture = CompletableFuture.completedFuture(null);
+
+            final SharedProcessFile.State state = sharedProcessFile.read();
+            if (nonNull(state)) {
+                state.holders.remove(sharedHolderToken);
+
+                if (!state.holders.isEmpty() && state.isProcessAlive()) {
+                    LOGGER.info(String.format("Releasing shared ngrok process %s, still held by %s others", state.pid, state.holders.size()));
+
+                    sharedProcessFile.write(state);
+                    sharedProcessFile.truncateLog(javaNgrokConfig.getDrainMaxFileSize());
+
+                    // Leave the process running for its other holders
+                    attachedApiUrl = null;
+                    if (nonNull(process)) {
+                        processMonitor.stop();
+                        process = null;
+                        deleteWebAddrConfig();
+                    }
+
+                    return sharedExitFuture;
+                }
+
+                sharedProcessFile.delete();
+
+                if (isNull(process) || process.pid() != state.pid) {
+                    final Optional<ProcessHandle> processHandle = ProcessHandle.of(state.pid);
+                    if (processHandle.isPresent() && isSharedProcess(state)) {
+                        LOGGER.info(String.format("Killing shared ngrok process: %s", state.pid));
+
+                        sharedExitFuture = terminate(processHandle.get(), timeout);
+                    } else if (processHandle.isPresent()) {
+                        LOGGER.warning(String.format("Shared ngrok process %s is no longer ngrok, not killing it", state.pid));
+                    }
+                }
+            }
+
+            attachedApiUrl = null;
+            if (nonNull(process) && process.isAlive()) {
+                return CompletableFuture.allOf(sharedExitFuture, killProcess(timeout));
+            }
+
+            return sharedExitFuture;
+        });
+    }
+
+    private boolean isSharedProcess(final SharedProcessFile.State state) {
+        if (state.isRunning(javaNgrokConfig.getNgrokPath())) {
+            return true;
+        }
+        if (!state.isProcessAlive()) {
+            return false;
         }
 
+        try {
+            return new DefaultHttpClient.Builder().build()
+                    .get(String.format("%s/api/tunnels", state.apiUrl), Tunnels.class)
+                    .getStatusCode() == HTTP_OK;
+        } catch (HttpClientException e) {
+            return false;
+        }
+    }
+
+    private CompletableFuture<Void> killProcess(final Duration timeout) {
         LOGGER.info(String.format("Killing ngrok process: %s", process.pid()));
 
         processMonitor.stop();
-        process.descendants().forEach(ProcessHandle::destroy);
-        process.destroy();
+        final CompletableFuture<Void> killFuture = terminate(process.toHandle(), timeout);
 
         process = null;
+        deleteWebAddrConfig();
+
+        return killFuture;
+    }
+
+    private static CompletableFuture<Void> terminate(final ProcessHandle processHandle, final Duration timeout) {
+        final List<ProcessHandle> processHandles = processHandle.descendants().collect(Collectors.toList());
+        processHandles.add(processHandle);
+
+        processHandles.forEach(ProcessHandle::destroy);
+
+        return allExited(processHandles)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, e) -> {
+                    if (isNull(e)) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+
+                    LOGGER.warning(String.format("ngrok process %s did not exit within %s, killing it forcibly", processHandle.pid(), timeout));
+
+                    processHandles.forEach(ProcessHandle::destroyForcibly);
+
+                    return allExited(processHandles);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static CompletableFuture<Void> allExited(final List<ProcessHandle> processHandles) {
+        return CompletableFuture.allOf(processHandles.stream()
+                .map(ProcessHandle::onExit)
+                .toArray(CompletableFuture[]::new));
     }
 
     /**
@@ -215,41 +731,11 @@ public class NgrokProcess {
      * @param authToken The auth token.
      */
     public void setAuthToken(final String authToken) {
-        final ProcessBuilder processBuilder = new ProcessBuilder();
-        processBuilder.redirectErrorStream(true);
-        processBuilder.inheritIO().redirectOutput(ProcessBuilder.Redirect.PIPE);
-
-        final List<String> command = new ArrayList<>();
-        command.add(javaNgrokConfig.getNgrokPath().toString());
-        if (javaNgrokConfig.getNgrokVersion() == NgrokVersion.V2) {
-            command.add("authtoken");
-            command.add(authToken);
-        }
-        else {
-            command.add("config");
-            command.add("add-authtoken");
-            command.add(authToken);
-        }
-        command.add("--log=stdout");
-
-        if (nonNull(javaNgrokConfig.getConfigPath())) {
-            command.add(String.format("--config=%s", javaNgrokConfig.getConfigPath().toString()));
-        }
-
         LOGGER.info(String.format("Updating authtoken for \"configPath\": %s", javaNgrokConfig.getConfigPath()));
 
-        processBuilder.command(command);
         try {
-            final Process process = processBuilder.start();
-            process.waitFor();
-
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-            final String result = captureOutput(reader);
-            if (!result.contains("Authtoken saved")) {
-                throw new NgrokException(String.format("An error occurred while setting the auth token: %s", result));
-            }
-        } catch (IOException | InterruptedException e) {
+            ngrokInstaller.setAuthToken(javaNgrokConfig.getConfigPath(), authToken, javaNgrokConfig.getNgrokVersion());
+        } catch (JavaNgrokInstallerException e) {
             throw new NgrokException("An error occurred while setting the auth token for ngrok.", e);
         }
     }
@@ -285,11 +771,21 @@ public class NgrokProcess {
     }
 
     /**
-     * Get the <code>ngrok</code> version.
+     * Get the <code>ngrok</code> version. The version is cached, in memory and optionally in
+     * {@link JavaNgrokConfig#getVersionCachePath()}, until the binary's size or modification time changes, for
+     * instance after {@link #update()}.
      *
      * @return The version.
      */
     public String getVersion() {
+        if (!Files.exists(javaNgrokConfig.getNgrokPath())) {
+            return readVersion();
+        }
+
+        return versionCache.get(javaNgrokConfig.getNgrokPath(), this::readVersion);
+    }
+
+    private String readVersion() {
         final ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.redirectErrorStream(true);
         processBuilder.inheritIO().redirectOutput(ProcessBuilder.Redirect.PIPE);
@@ -311,9 +807,14 @@ public class NgrokProcess {
     }
 
     /**
-     * Get the API URL for the <code>ngrok</code> web interface.
+     * Get the API URL for the <code>ngrok</code> web interface. The <code>ngrok</code> API is only probed if the
+     * last successful health check is older than {@link JavaNgrokConfig#getHealthCheckCacheTimeout()}.
      */
     public String getApiUrl() {
+        if (nonNull(attachedApiUrl)) {
+            return attachedApiUrl;
+        }
+
         if (!isRunning() || !processMonitor.isHealthy()) {
             return null;
         }
@@ -321,6 +822,13 @@ public class NgrokProcess {
         return processMonitor.apiUrl;
     }
 
+    /**
+     * Get the <code>java-ngrok</code> config used when interacting with the <code>ngrok</code> binary.
+     */
+    public JavaNgrokConfig getJavaNgrokConfig() {
+        return javaNgrokConfig;
+    }
+
     /**
      * Get the class used to download and install <code>ngrok</code>.
      */
@@ -336,16 +844,32 @@ public class NgrokProcess {
     }
 
     public static class ProcessMonitor implements Runnable {
+        private static final long MIN_PROBE_INTERVAL_MILLIS = 10;
+        private static final long MAX_PROBE_INTERVAL_MILLIS = 250;
+
         private final Process process;
         private final JavaNgrokConfig javaNgrokConfig;
         private final HttpClient httpClient;
-        private String apiUrl;
-        private boolean tunnelStarted;
-        private boolean clientConnected;
-        private String startupError;
-
-        private final List<NgrokLog> logs = new ArrayList<>();
-        private boolean alive = true;
+        private final Path logPath;
+        private final OutputDrain outputDrain;
+        private final StartupTimings startupTimings;
+        private volatile String apiUrl;
+        private volatile boolean tunnelStarted;
+        private volatile boolean clientConnected;
+        private volatile String startupError;
+
+        private final RingBuffer<NgrokLog> logs;
+        private final LogEventDispatcher logEventDispatcher;
+        private final CompletableFuture<Void> startupFuture = new CompletableFuture<>();
+        private final CompletableFuture<Void> sessionFuture = new CompletableFuture<>();
+        private volatile boolean webServiceStarted;
+        private volatile Set<String> expectedTunnels = Set.of();
+        private final Map<String, String> startedTunnels = new ConcurrentHashMap<>();
+        private volatile boolean alive = true;
+        private volatile boolean draining = true;
+        private volatile Stage stage = Stage.STARTING;
+        private volatile boolean healthCached;
+        private volatile long healthCheckedAt;
 
         public ProcessMonitor(final Process process,
                               final JavaNgrokConfig javaNgrokConfig) {
@@ -355,43 +879,230 @@ public class NgrokProcess {
         protected ProcessMonitor(final Process process,
                                  final JavaNgrokConfig javaNgrokConfig,
                                  final HttpClient httpClient) {
+            this(process, javaNgrokConfig, httpClient, null, new StartupTimings());
+        }
+
+        ProcessMonitor(final Process process,
+                       final JavaNgrokConfig javaNgrokConfig,
+                       final HttpClient httpClient,
+                       final Path logPath,
+                       final StartupTimings startupTimings) {
             this.process = process;
             this.javaNgrokConfig = javaNgrokConfig;
             this.httpClient = httpClient;
+            this.logPath = logPath;
+            this.outputDrain = new OutputDrain(javaNgrokConfig);
+            this.startupTimings = startupTimings;
+            this.logs = new RingBuffer<>(javaNgrokConfig.getMaxLogs());
+            this.logEventDispatcher = new LogEventDispatcher(javaNgrokConfig);
         }
 
         @Override
         public void run() {
             try {
-                final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                final InputStream inputStream;
+                if (nonNull(logPath)) {
+                    inputStream = new LogFileInputStream(logPath, javaNgrokConfig.getDrainMaxFileSize(),
+                            () -> (alive || draining) && process.isAlive());
+                } else {
+                    inputStream = process.getInputStream();
+                }
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+
+                try {
+                    String line;
+                    while ((stage == Stage.STARTING || stage == Stage.MONITORING) && (line = reader.readLine()) != null) {
+                        handleLine(line);
+                    }
 
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    logStartupLine(line);
+                    // If the process exited before it finished starting, there is nothing more to wait for
+                    endMonitoring();
 
-                    if (isHealthy()) {
-                        break;
-                    } else if (nonNull(startupError)) {
-                        alive = false;
-                        break;
+                    // A pipe that is no longer read fills up and blocks ngrok, and a log file that is no longer
+                    // followed is no longer truncated
+                    if (stage == Stage.DRAINING) {
+                        outputDrain.drain(reader, () -> draining && process.isAlive());
+                    }
+                } finally {
+                    // The process's own pipe is closed with the process, but the log file is opened here
+                    if (nonNull(logPath)) {
+                        closeQuietly(reader);
                     }
                 }
+            } catch (IOException e) {
+                throw fail(e);
+            }
+        }
+
+        private static void closeQuietly(final BufferedReader reader) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Unable to close the ngrok log file", e);
+            }
+        }
 
-                while (alive && process.isAlive() && javaNgrokConfig.isKeepMonitoring() && (line = reader.readLine()) != null) {
-                    logLine(line);
+        /**
+         * Monitor <code>ngrok</code>'s output with the given multiplexer rather than a dedicated thread.
+         */
+        void register(final OutputMultiplexer outputMultiplexer) {
+            outputMultiplexer.register(process.getInputStream(), process::isAlive, javaNgrokConfig.getExecutor(), new OutputMultiplexer.LineHandler() {
+                @Override
+                public boolean onLine(final String line) {
+                    if (stage == Stage.DRAINING) {
+                        if (!draining || !process.isAlive()) {
+                            return false;
+                        }
+
+                        try {
+                            outputDrain.drainLine(line);
+                        } catch (IOException e) {
+                            throw fail(e);
+                        }
+
+                        return true;
+                    }
+
+                    handleLine(line);
+
+                    return stage != Stage.DONE;
                 }
 
-                alive = false;
-            } catch (IOException e) {
-                throw new NgrokException("An error occurred in the ngrok process.", e);
+                @Override
+                public void onEnd(final IOException e) {
+                    if (nonNull(e)) {
+                        fail(e);
+                    } else if (stage != Stage.DRAINING) {
+                        endMonitoring();
+                    }
+
+                    try {
+                        outputDrain.close();
+                    } catch (IOException ex) {
+                        LOGGER.log(Level.WARNING, "An error occurred closing the ngrok output drain.", ex);
+                    }
+                }
+            });
+        }
+
+        private void handleLine(final String line) {
+            if (stage == Stage.STARTING) {
+                logStartupLine(line);
+
+                if (nonNull(startupError)) {
+                    alive = false;
+                    endStartup();
+                } else {
+                    if (isReady()) {
+                        startupFuture.complete(null);
+                    }
+                    if (isStarted()) {
+                        endStartup();
+                    }
+                }
+            } else if (stage == Stage.MONITORING) {
+                if (alive && process.isAlive()) {
+                    if (!isBelowMinLogLevel(line)) {
+                        logLine(line);
+                    }
+                } else {
+                    endMonitoring();
+                }
+            }
+        }
+
+        private void endStartup() {
+            startupFuture.complete(null);
+            sessionFuture.complete(null);
+
+            if (alive && javaNgrokConfig.isKeepMonitoring()) {
+                stage = Stage.MONITORING;
+            } else {
+                endMonitoring();
+            }
+        }
+
+        private void endMonitoring() {
+            startupFuture.complete(null);
+            sessionFuture.complete(null);
+            alive = false;
+
+            if (stage == Stage.STARTING || stage == Stage.MONITORING) {
+                stage = !javaNgrokConfig.isKeepMonitoring() ? Stage.DRAINING : Stage.DONE;
             }
         }
 
+        private NgrokException fail(final IOException e) {
+            final NgrokException ngrokException = new NgrokException("An error occurred in the ngrok process.", e);
+            startupFuture.completeExceptionally(ngrokException);
+            sessionFuture.completeExceptionally(ngrokException);
+            alive = false;
+            stage = Stage.DONE;
+
+            return ngrokException;
+        }
+
         /**
          * Get the <code>ngrok</code> logs.
          */
         public List<NgrokLog> getLogs() {
-            return List.of(logs.toArray(new NgrokLog[]{}));
+            return logs.snapshot();
+        }
+
+        /**
+         * Get a future that completes once <code>ngrok</code> has logged that it finished starting, logged a
+         * startup error, or exited. Completion does not guarantee the process is healthy.
+         */
+        public CompletableFuture<Void> getStartupFuture() {
+            return startupFuture;
+        }
+
+        /**
+         * Get the timestamps of each phase of starting the <code>ngrok</code> process this is monitoring.
+         */
+        public StartupTimings getStartupTimings() {
+            return startupTimings;
+        }
+
+        /**
+         * Get the number of lines of <code>ngrok</code> output consumed since monitoring stopped, when
+         * {@link JavaNgrokConfig#getDrainPolicy()} is {@link com.github.alexdlaird.ngrok.conf.DrainPolicy#COUNT}.
+         */
+        public long getDrainedLines() {
+            return outputDrain.getDrainedLines();
+        }
+
+        /**
+         * Get the number of log events dropped, rather than passed to the log event callback, because
+         * {@link JavaNgrokConfig#getLogEventQueueSize()} events were already waiting on it.
+         */
+        public long getDroppedLogEvents() {
+            return logEventDispatcher.getDroppedEvents();
+        }
+
+        /**
+         * Get a future that completes once <code>ngrok</code> has logged that its tunnel and client sessions are
+         * established, logged a startup error, or exited. With {@link Readiness#API}, this may complete after
+         * {@link #getStartupFuture()}.
+         */
+        public CompletableFuture<Void> getSessionFuture() {
+            return sessionFuture;
+        }
+
+        /**
+         * Get the tunnels from <code>ngrok</code>'s config that it logged as started while starting up, as set with
+         * {@link JavaNgrokConfig.Builder#withStartTunnels(List)} or
+         * {@link JavaNgrokConfig.Builder#withStartAllTunnels()}, mapped from their name to their public URL.
+         */
+        public Map<String, String> getStartedTunnels() {
+            return Collections.unmodifiableMap(startedTunnels);
+        }
+
+        /**
+         * Get whether <code>ngrok</code> has logged that its tunnel and client sessions are established.
+         */
+        public boolean isSessionEstablished() {
+            return isStarted();
         }
 
         /**
@@ -403,27 +1114,137 @@ public class NgrokProcess {
 
         private void stop() {
             this.alive = false;
+            this.draining = false;
+        }
+
+        /**
+         * Poll <code>ngrok</code>'s API at the given URL, known before it was started, until it responds, rather
+         * than waiting for the web service to be logged as started. Whether the remote session is established is
+         * only logged, not exposed by the API.
+         */
+        void probeWebService(final String knownApiUrl) {
+            this.apiUrl = knownApiUrl;
+
+            javaNgrokConfig.getExecutor().execute(() -> {
+                long pollInterval = MIN_PROBE_INTERVAL_MILLIS;
+                while (stage == Stage.STARTING && !webServiceStarted && process.isAlive()) {
+                    try {
+                        if (httpClient.get(String.format("%s/api/tunnels", knownApiUrl), Tunnels.class).getStatusCode() == HTTP_OK) {
+                            webServiceStarted();
+                            if (isReady()) {
+                                startupFuture.complete(null);
+                            }
+
+                            return;
+                        }
+                    } catch (HttpClientException e) {
+                        LOGGER.log(Level.FINEST, "ngrok API is not up yet", e);
+                    }
+
+                    try {
+                        Thread.sleep(pollInterval);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    pollInterval = Math.min(pollInterval * 2, MAX_PROBE_INTERVAL_MILLIS);
+                }
+            });
+        }
+
+        private void webServiceStarted() {
+            this.webServiceStarted = true;
+            startupTimings.record(StartupTimings.Phase.WEB_SERVICE_STARTED);
+        }
+
+        private boolean isStarted() {
+            return nonNull(apiUrl) && tunnelStarted && clientConnected && hasStartedExpectedTunnels();
+        }
+
+        private boolean hasStartedExpectedTunnels() {
+            for (final String name : expectedTunnels) {
+                // ngrok v2 logs the http tunnel of a "bind_tls: both" definition as "<name> (http)"
+                if (startedTunnels.keySet().stream().noneMatch(startedName -> startedName.equals(name) || startedName.startsWith(name + " ("))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean isReady() {
+            if (javaNgrokConfig.getReadiness() == Readiness.API) {
+                return nonNull(apiUrl) && webServiceStarted;
+            }
+
+            return isStarted();
+        }
+
+        /**
+         * Probe the <code>ngrok</code> API with the given client, ignoring any cached result, and cache the result.
+         * This lets callers, such as a supervisor, bound how long the probe may block with a client that times out.
+         *
+         * @param httpClient The client used to probe the API.
+         * @return <code>true</code> if the process is ready and its API responded.
+         */
+        public boolean checkHealth(final HttpClient httpClient) {
+            invalidateHealth();
+
+            return isHealthy(httpClient);
         }
 
         private boolean isHealthy() {
-            if (isNull(apiUrl) || !tunnelStarted || !clientConnected) {
+            return isHealthy(httpClient);
+        }
+
+        private boolean isHealthy(final HttpClient httpClient) {
+            if (!isReady() || !process.isAlive()) {
+                invalidateHealth();
+
                 return false;
             }
 
+            final long cacheTimeout = TimeUnit.SECONDS.toNanos(javaNgrokConfig.getHealthCheckCacheTimeout());
+            if (healthCached && System.nanoTime() - healthCheckedAt < cacheTimeout) {
+                return true;
+            }
+
             if (!apiUrl.toLowerCase().startsWith("http")) {
                 throw new JavaNgrokSecurityException(String.format("URL must start with \"http\": %s", apiUrl));
             }
 
-            final Response<Tunnels> tunnelsResponse = httpClient.get(String.format("%s/api/tunnels", apiUrl), Tunnels.class);
-            if (tunnelsResponse.getStatusCode() != HTTP_OK) {
+            final Response<Tunnels> tunnelsResponse;
+            try {
+                tunnelsResponse = httpClient.get(String.format("%s/api/tunnels", apiUrl), Tunnels.class);
+            } catch (HttpClientException e) {
+                invalidateHealth();
+
+                throw e;
+            }
+            if (tunnelsResponse.getStatusCode() != HTTP_OK || !process.isAlive()) {
+                invalidateHealth();
+
                 return false;
             }
 
-            return process.isAlive();
+            healthCheckedAt = System.nanoTime();
+            healthCached = true;
+
+            return true;
+        }
+
+        /**
+         * Discard the cached result of the last successful health check, so the next check will probe the
+         * <code>ngrok</code> API again.
+         */
+        public void invalidateHealth() {
+            healthCached = false;
         }
 
         private void logStartupLine(final String line) {
-            final NgrokLog ngrokLog = logLine(line);
+            // Lines below the min level are still parsed while starting up, since the startup states are logged at
+            // INFO, but are otherwise skipped
+            final NgrokLog ngrokLog = isBelowMinLogLevel(line) ? parseLine(line) : logLine(line);
 
             if (isNull(ngrokLog)) {
                 return;
@@ -435,32 +1256,63 @@ public class NgrokProcess {
                 // Log ngrok startup states as they come in
                 if (ngrokLog.getMsg().contains("starting web service") && nonNull(ngrokLog.getAddr())) {
                     this.apiUrl = String.format("http://%s", ngrokLog.getAddr());
+                    webServiceStarted();
                 } else if (ngrokLog.getMsg().contains("tunnel session started")) {
                     this.tunnelStarted = true;
+                    startupTimings.record(StartupTimings.Phase.TUNNEL_SESSION_STARTED);
                 } else if (ngrokLog.getMsg().contains("client session established")) {
                     this.clientConnected = true;
+                    startupTimings.record(StartupTimings.Phase.CLIENT_SESSION_ESTABLISHED);
+                } else if (ngrokLog.getMsg().contains("started tunnel") && nonNull(ngrokLog.get("name"))) {
+                    startedTunnels.put(ngrokLog.get("name"), ngrokLog.getOrDefault("url", ""));
                 }
             }
         }
 
         private NgrokLog logLine(final String line) {
-            final NgrokLog ngrokLog = new NgrokLog(line);
+            final NgrokLog ngrokLog = parseLine(line);
 
-            if (isBlank(ngrokLog.getLine())) {
+            if (isNull(ngrokLog)) {
                 return null;
             }
 
             LOGGER.log(Level.parse(ngrokLog.getLvl()), ngrokLog.getLine());
-            logs.add(ngrokLog);
-            if (logs.size() > javaNgrokConfig.getMaxLogs()) {
-                logs.remove(0);
+            if (SEVERE.getName().equals(ngrokLog.getLvl())) {
+                invalidateHealth();
             }
+            logs.add(ngrokLog);
+
+            logEventDispatcher.dispatch(ngrokLog);
+
+            return ngrokLog;
+        }
 
-            if (nonNull(javaNgrokConfig.getLogEventCallback())) {
-                javaNgrokConfig.getLogEventCallback().apply(ngrokLog);
+        private NgrokLog parseLine(final String line) {
+            final NgrokLog ngrokLog = new NgrokLog(line, true);
+
+            if (isBlank(ngrokLog.getLine())) {
+                return null;
             }
 
             return ngrokLog;
         }
+
+        private boolean isBelowMinLogLevel(final String line) {
+            final Level minLogLevel = javaNgrokConfig.getMinLogLevel();
+            if (minLogLevel.intValue() == Level.ALL.intValue()) {
+                return false;
+            }
+
+            final Level level = NgrokLog.scanLvl(line);
+
+            return nonNull(level) && level.intValue() < minLogLevel.intValue();
+        }
+
+        private enum Stage {
+            STARTING,
+            MONITORING,
+            DRAINING,
+            DONE
+        }
     }
 }
@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.exception.JavaNgrokException;
+import com.github.alexdlaird.exception.NgrokException;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A pool of <code>ngrok</code> processes that are started in the background before they are needed, so a caller
+ * can lease one that is already running instead of waiting for a cold {@link NgrokProcess#start()}. Each pooled
+ * process gets its own config file, copied from {@link JavaNgrokConfig#getConfigPath()}, with its own
+ * <code>web_addr</code> on a free loopback port.
+ *
+ * <h3>Basic Usage</h3>
+ * <pre>
+ * final NgrokProcessPool ngrokProcessPool = new NgrokProcessPool.Builder()
+ *         .withJavaNgrokConfig(javaNgrokConfig)
+ *         .withMinIdle(2)
+ *         .withMaxSize(8)
+ *         .build();
+ *
+ * final NgrokProcess ngrokProcess = ngrokProcessPool.lease();
+ * final NgrokClient ngrokClient = new NgrokClient.Builder()
+ *         .withJavaNgrokConfig(ngrokProcess.getJavaNgrokConfig())
+ *         .withNgrokProcess(ngrokProcess)
+ *         .build();
+ *
+ * // ... use the client, then hand the process back so its slot can be refilled
+ * ngrokProcessPool.release(ngrokProcess);
+ * </pre>
+ */
+public class NgrokProcessPool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(NgrokProcessPool.class));
+
+    private final JavaNgrokConfig javaNgrokConfig;
+    private final NgrokInstaller ngrokInstaller;
+    private final Path configDir;
+    private final int minIdle;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger configCounter = new AtomicInteger();
+
+    private final Deque<PooledProcess> idle = new ArrayDeque<>();
+    private final Set<NgrokProcess> leased = new HashSet<>();
+    private int size;
+    private boolean closed;
+
+    private NgrokProcessPool(final Builder builder) {
+        this.javaNgrokConfig = builder.javaNgrokConfig;
+        this.ngrokInstaller = builder.ngrokInstaller;
+        this.configDir = builder.configDir;
+        this.minIdle = builder.minIdle;
+        this.maxSize = builder.maxSize;
+        this.idleTimeout = builder.idleTimeout;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = javaNgrokConfig.getThreadFactory().newThread(runnable);
+            thread.setName("ngrok-process-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final long evictionInterval = Math.max(1000, idleTimeout.toMillis() / 2);
+        scheduler.execute(this::replenish);
+        scheduler.scheduleWithFixedDelay(this::evict, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lease a <code>ngrok</code> process from the pool, preferring one that has already started. If none are
+     * ready, this waits on one that is still starting, or starts a new one if the pool has room. A replacement is
+     * started in the background.
+     *
+     * @return A running <code>ngrok</code> process.
+     * @throws JavaNgrokException The pool is closed or already has {@link Builder#withMaxSize(int) maxSize}
+     *                            processes.
+     * @throws NgrokException     The leased process failed to start.
+     */
+    public NgrokProcess lease() {
+        PooledProcess pooledProcess;
+        synchronized (this) {
+            if (closed) {
+                throw new JavaNgrokException("The ngrok process pool is closed.");
+            }
+
+            pooledProcess = takeIdle(true);
+            if (isNull(pooledProcess)) {
+                pooledProcess = takeIdle(false);
+            }
+            if (isNull(pooledProcess)) {
+                if (size >= maxSize) {
+                    throw new JavaNgrokException(String.format("The ngrok process pool has reached its max size of %s.", maxSize));
+                }
+
+                // The slot is reserved now, but the process is created outside the lock
+                ++size;
+            } else {
+                leased.add(pooledProcess.ngrokProcess);
+            }
+        }
+
+        if (isNull(pooledProcess)) {
+            pooledProcess = warm();
+
+            synchronized (this) {
+                leased.add(pooledProcess.ngrokProcess);
+            }
+        }
+
+        scheduleReplenish();
+
+        try {
+            pooledProcess.started.join();
+        } catch (CompletionException e) {
+            discard(pooledProcess);
+
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new NgrokException("An error occurred while starting a pooled ngrok process.", e.getCause());
+        }
+
+        return pooledProcess.ngrokProcess;
+    }
+
+    /**
+     * Stop a <code>ngrok</code> process that was leased from this pool, freeing its slot to be refilled.
+     *
+     * @param ngrokProcess The process to release.
+     */
+    public void release(final NgrokProcess ngrokProcess) {
+        // Removed under the same lock as the check, so a process released twice is only discarded once
+        synchronized (this) {
+            if (!leased.remove(ngrokProcess)) {
+                throw new IllegalArgumentException("The ngrok process was not leased from this pool.");
+            }
+        }
+
+        discard(new PooledProcess(ngrokProcess, null));
+
+        scheduleReplenish();
+    }
+
+    /**
+     * Get the number of processes in the pool, including those that are leased or still starting.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of processes that are waiting to be leased.
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Stop all idle processes in the pool. Processes that are currently leased are left running, and must still
+     * be stopped by their callers.
+     */
+    @Override
+    public void close() {
+        final Deque<PooledProcess> toStop;
+        synchronized (this) {
+            closed = true;
+            toStop = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+
+        scheduler.shutdownNow();
+
+        toStop.forEach(this::discard);
+    }
+
+    private PooledProcess takeIdle(final boolean readyOnly) {
+        final Iterator<PooledProcess> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            final PooledProcess pooledProcess = iterator.next();
+            if (readyOnly ? pooledProcess.isReady() : !pooledProcess.started.isCompletedExceptionally()) {
+                iterator.remove();
+                return pooledProcess;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Refill the pool in the background, unless it is closed. This is checked under the same lock that
+     * {@link #close()} sets it under, so the scheduler is not yet shut down when the task is submitted.
+     */
+    private synchronized void scheduleReplenish() {
+        if (!closed) {
+            scheduler.execute(this::replenish);
+        }
+    }
+
+    /**
+     * Only run on the scheduler thread, so two refills never overlap.
+     */
+    private void replenish() {
+        while (true) {
+            synchronized (this) {
+                if (closed || idle.size() >= minIdle || size >= maxSize) {
+                    return;
+                }
+
+                ++size;
+            }
+
+            final PooledProcess pooledProcess;
+            try {
+                pooledProcess = warm();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "An error occurred while warming a pooled ngrok process", e);
+                return;
+            }
+
+            synchronized (this) {
+                if (!closed) {
+                    idle.add(pooledProcess);
+                    continue;
+                }
+            }
+
+            discard(pooledProcess);
+            return;
+        }
+    }
+
+    /**
+     * Create and start a process for a slot that has already been reserved in {@link #size}. This writes its
+     * config and may install <code>ngrok</code>, so it is not run while holding the pool's lock. If it fails, the
+     * slot is freed.
+     */
+    private PooledProcess warm() {
+        final int id = configCounter.incrementAndGet();
+        final Path configPath = Paths.get(configDir.toString(), String.format("ngrok-pool-%s.yml", id));
+
+        final PooledProcess pooledProcess;
+        try {
+            final Map<String, Object> data = new HashMap<>();
+            if (Files.exists(javaNgrokConfig.getConfigPath())) {
+                data.putAll(ngrokInstaller.getNgrokConfig(javaNgrokConfig.getConfigPath(), true, javaNgrokConfig.getNgrokVersion()));
+            }
+            ngrokInstaller.installDefaultConfig(configPath, data, javaNgrokConfig.getNgrokVersion());
+
+            // A web_addr or drain file set on the base config would otherwise be shared by every pooled process
+            final JavaNgrokConfig pooledJavaNgrokConfig = new JavaNgrokConfig.Builder(javaNgrokConfig)
+                    .withConfigPath(configPath)
+                    .withWebAddr(String.format("127.0.0.1:%s", NgrokProcess.findFreePort()))
+                    .withDrainPath(getPooledDrainPath(id))
+                    .build();
+            final NgrokProcess ngrokProcess = new NgrokProcess(pooledJavaNgrokConfig, ngrokInstaller);
+
+            LOGGER.fine(String.format("Warming pooled ngrok process with config file: %s", configPath));
+
+            pooledProcess = new PooledProcess(ngrokProcess, ngrokProcess.startAsync());
+        } catch (RuntimeException e) {
+            try {
+                Files.deleteIfExists(configPath);
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Unable to delete pooled ngrok config", ex);
+            }
+
+            synchronized (this) {
+                --size;
+            }
+
+            throw e;
+        }
+
+        pooledProcess.started.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                LOGGER.log(Level.WARNING, "A pooled ngrok process failed to start", throwable);
+
+                synchronized (this) {
+                    if (!idle.remove(pooledProcess)) {
+                        // Leased processes are discarded by the caller waiting on them, and processes that failed
+                        // before being added to the idle queue are discarded on the next eviction
+                        return;
+                    }
+                }
+                discard(pooledProcess);
+            }
+        });
+
+        return pooledProcess;
+    }
+
+    private Path getPooledDrainPath(final int id) {
+        final Path drainPath = javaNgrokConfig.getDrainPath();
+        if (isNull(drainPath)) {
+            return Paths.get(configDir.toString(), String.format("ngrok-pool-%s.log", id));
+        }
+
+        final String fileName = drainPath.getFileName().toString();
+        final int extensionIndex = fileName.lastIndexOf('.');
+        if (extensionIndex < 1) {
+            return drainPath.resolveSibling(String.format("%s-pool-%s", fileName, id));
+        }
+
+        return drainPath.resolveSibling(String.format("%s-pool-%s%s", fileName.substring(0, extensionIndex), id, fileName.substring(extensionIndex)));
+    }
+
+    private void evict() {
+        final Deque<PooledProcess> toStop = new ArrayDeque<>();
+        synchronized (this) {
+            final long now = System.nanoTime();
+            final Iterator<PooledProcess> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                final PooledProcess pooledProcess = iterator.next();
+                final boolean expired = !idleTimeout.isZero() && now - pooledProcess.idleSince > idleTimeout.toNanos();
+                final boolean dead = pooledProcess.started.isDone() && !pooledProcess.isReady();
+                if ((expired && pooledProcess.isReady()) || dead) {
+                    iterator.remove();
+                    toStop.add(pooledProcess);
+                }
+            }
+        }
+
+        toStop.forEach(this::discard);
+
+        replenish();
+    }
+
+    private void discard(final PooledProcess pooledProcess) {
+        pooledProcess.ngrokProcess.stop();
+
+        try {
+            Files.deleteIfExists(pooledProcess.ngrokProcess.getJavaNgrokConfig().getConfigPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Unable to delete pooled ngrok config", e);
+        }
+
+        try {
+            final Path drainPath = pooledProcess.ngrokProcess.getJavaNgrokConfig().getDrainPath();
+            if (nonNull(drainPath)) {
+                Files.deleteIfExists(drainPath);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Unable to delete pooled ngrok drain file", e);
+        }
+
+        synchronized (this) {
+            leased.remove(pooledProcess.ngrokProcess);
+            --size;
+        }
+    }
+
+    private static class PooledProcess {
+        private final NgrokProcess ngrokProcess;
+        private final CompletableFuture<Void> started;
+        private final long idleSince = System.nanoTime();
+
+        private PooledProcess(final NgrokProcess ngrokProcess,
+                              final CompletableFuture<Void> started) {
+            this.ngrokProcess = ngrokProcess;
+            this.started = started;
+        }
+
+        private boolean isReady() {
+            return started.isDone() && !started.isCompletedExceptionally() && ngrokProcess.isRunning();
+        }
+    }
+
+    /**
+     * Builder for a {@link NgrokProcessPool}, see docs for that class for example usage.
+     */
+    public static class Builder {
+
+        private JavaNgrokConfig javaNgrokConfig;
+        private NgrokInstaller ngrokInstaller;
+        private Path configDir;
+        private int minIdle = 1;
+        private int maxSize = 4;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * The <code>java-ngrok</code> config each pooled process is based on. Each process gets its own copy of
+         * the config file at {@link JavaNgrokConfig#getConfigPath()}, with its own <code>web_addr</code>, and its
+         * own {@link JavaNgrokConfig#getDrainPath() drainPath} file.
+         */
+        public Builder withJavaNgrokConfig(final JavaNgrokConfig javaNgrokConfig) {
+            this.javaNgrokConfig = javaNgrokConfig;
+            return this;
+        }
+
+        /**
+         * The class used to download and install <code>ngrok</code> and manage its config files.
+         */
+        public Builder withNgrokInstaller(final NgrokInstaller ngrokInstaller) {
+            this.ngrokInstaller = ngrokInstaller;
+            return this;
+        }
+
+        /**
+         * The directory in which each pooled process's config file is written, defaults to the directory of
+         * {@link JavaNgrokConfig#getConfigPath()}.
+         */
+        public Builder withConfigDir(final Path configDir) {
+            this.configDir = configDir;
+            return this;
+        }
+
+        /**
+         * The number of started processes to keep waiting to be leased, defaults to 1.
+         */
+        public Builder withMinIdle(final int minIdle) {
+            if (minIdle < 0) {
+                throw new IllegalArgumentException("\"minIdle\" cannot be negative.");
+            }
+
+            this.minIdle = minIdle;
+            return this;
+        }
+
+        /**
+         * The max number of processes in the pool, including those that are leased, defaults to 4.
+         */
+        public Builder withMaxSize(final int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("\"maxSize\" must be greater than 0.");
+            }
+
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * How long a started process may wait to be leased before it is stopped and replaced with a fresh one,
+         * defaults to 10 minutes. Set to {@link Duration#ZERO} to never evict idle processes.
+         */
+        public Builder withIdleTimeout(final Duration idleTimeout) {
+            if (idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("\"idleTimeout\" cannot be negative.");
+            }
+
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public NgrokProcessPool build() {
+            if (isNull(javaNgrokConfig)) {
+                javaNgrokConfig = new JavaNgrokConfig.Builder().build();
+            }
+            if (isNull(ngrokInstaller)) {
+                ngrokInstaller = new NgrokInstaller();
+            }
+            if (isNull(configDir)) {
+                configDir = javaNgrokConfig.getConfigPath().toAbsolutePath().getParent();
+            }
+            if (minIdle > maxSize) {
+                throw new IllegalArgumentException("\"minIdle\" cannot be greater than \"maxSize\".");
+            }
+
+            return new NgrokProcessPool(this);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * A registry of <code>ngrok</code> processes keyed by their config path, so several
+ * {@link com.github.alexdlaird.ngrok.NgrokClient}s built from the same {@link JavaNgrokConfig} share one process,
+ * and one {@link TunnelRegistry}, rather than each managing its own. Each process is reference counted, and is only
+ * stopped when its last holder releases it.
+ * <p>
+ * The first {@link JavaNgrokConfig} acquired for a config path is the one its process is started with.
+ *
+ * <h3>Basic Usage</h3>
+ * <pre>
+ * final NgrokProcessRegistry ngrokProcessRegistry = new NgrokProcessRegistry();
+ *
+ * final NgrokClient ngrokClient1 = new NgrokClient.Builder()
+ *         .withJavaNgrokConfig(javaNgrokConfig)
+ *         .withNgrokProcessRegistry(ngrokProcessRegistry)
+ *         .build();
+ * final NgrokClient ngrokClient2 = new NgrokClient.Builder()
+ *         .withJavaNgrokConfig(javaNgrokConfig)
+ *         .withNgrokProcessRegistry(ngrokProcessRegistry)
+ *         .build();
+ *
+ * // ngrok keeps running for ngrokClient2 until it is killed as well
+ * ngrokClient1.kill();
+ * </pre>
+ */
+public class NgrokProcessRegistry {
+
+    private final Map<Path, Entry> entries = new HashMap<>();
+
+    /**
+     * Acquire the <code>ngrok</code> process for the config's path, creating it if no other holder has it. The
+     * process is not started.
+     *
+     * @param javaNgrokConfig The config to create the process with, if it does not yet exist.
+     * @param ngrokInstaller  The installer to create the process with, if it does not yet exist.
+     * @return The shared process.
+     */
+    public synchronized NgrokProcess acquire(final JavaNgrokConfig javaNgrokConfig,
+                                             final NgrokInstaller ngrokInstaller) {
+        final Entry entry = entries.computeIfAbsent(getKey(javaNgrokConfig),
+                key -> new Entry(new NgrokProcess(javaNgrokConfig, ngrokInstaller)));
+        ++entry.references;
+
+        return entry.ngrokProcess;
+    }
+
+    /**
+     * Release a hold on a <code>ngrok</code> process acquired from this registry. When the last holder releases
+     * it, the process is stopped and its tunnels are forgotten.
+     *
+     * @param ngrokProcess The process to release.
+     */
+    public synchronized void release(final NgrokProcess ngrokProcess) {
+        final Path key = getKey(ngrokProcess.getJavaNgrokConfig());
+        final Entry entry = entries.get(key);
+        if (isNull(entry) || entry.ngrokProcess != ngrokProcess) {
+            throw new IllegalArgumentException("The ngrok process was not acquired from this registry.");
+        }
+
+        if (--entry.references > 0) {
+            return;
+        }
+
+        // Stopped while still holding the registry, so the next holder can't start a replacement on the same ports
+        ngrokProcess.stopAsync(Duration.ofSeconds(ngrokProcess.getJavaNgrokConfig().getStopTimeout())).join();
+        entry.tunnelRegistry.clear();
+        entries.remove(key);
+    }
+
+    /**
+     * Get the tunnels shared by the holders of a <code>ngrok</code> process acquired from this registry.
+     *
+     * @param ngrokProcess The process.
+     * @return The process's tunnels.
+     */
+    public synchronized TunnelRegistry getTunnelRegistry(final NgrokProcess ngrokProcess) {
+        final Entry entry = entries.get(getKey(ngrokProcess.getJavaNgrokConfig()));
+        if (isNull(entry) || entry.ngrokProcess != ngrokProcess) {
+            throw new IllegalArgumentException("The ngrok process was not acquired from this registry.");
+        }
+
+        return entry.tunnelRegistry;
+    }
+
+    /**
+     * Get the number of holders of the <code>ngrok</code> process for the given config path.
+     */
+    public synchronized int getReferenceCount(final Path configPath) {
+        final Entry entry = entries.get(configPath.toAbsolutePath().normalize());
+
+        return isNull(entry) ? 0 : entry.references;
+    }
+
+    private static Path getKey(final JavaNgrokConfig javaNgrokConfig) {
+        return javaNgrokConfig.getConfigPath().toAbsolutePath().normalize();
+    }
+
+    private static class Entry {
+        private final NgrokProcess ngrokProcess;
+        private final TunnelRegistry tunnelRegistry = new TunnelRegistry();
+        private int references;
+
+        private Entry(final NgrokProcess ngrokProcess) {
+            this.ngrokProcess = ngrokProcess;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.conf.DrainPolicy;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Consumes <code>ngrok</code>'s output in raw chunks, or line by line when it is read by an
+ * {@link OutputMultiplexer}, once it is no longer being monitored, according to the {@link DrainPolicy} in the
+ * config.
+ */
+class OutputDrain {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final DrainPolicy drainPolicy;
+    private final Path drainPath;
+    private final long maxFileSize;
+
+    private volatile long drainedLines;
+    private Writer writer;
+    private long fileSize;
+
+    OutputDrain(final JavaNgrokConfig javaNgrokConfig) {
+        this.drainPolicy = javaNgrokConfig.getDrainPolicy();
+        // Resolved here rather than defaulted in the config, so a config copied with another configPath follows it
+        this.drainPath = nonNull(javaNgrokConfig.getDrainPath())
+                ? javaNgrokConfig.getDrainPath()
+                : javaNgrokConfig.getConfigPath().toAbsolutePath().resolveSibling("ngrok.log");
+        this.maxFileSize = javaNgrokConfig.getDrainMaxFileSize();
+    }
+
+    /**
+     * Consume the reader until it is exhausted or <code>keepDraining</code> no longer holds.
+     */
+    void drain(final Reader reader, final BooleanSupplier keepDraining) throws IOException {
+        final char[] buffer = new char[BUFFER_SIZE];
+
+        try {
+            int read;
+            while (keepDraining.getAsBoolean() && (read = reader.read(buffer)) != -1) {
+                accept(buffer, read);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Consume a single line of output that was already split from the stream, without its line terminator.
+     */
+    void drainLine(final String line) throws IOException {
+        if (drainPolicy == DrainPolicy.COUNT) {
+            ++drainedLines;
+        } else if (drainPolicy == DrainPolicy.ROTATING_FILE) {
+            final char[] chars = (line + "\n").toCharArray();
+            write(chars, chars.length);
+        }
+    }
+
+    /**
+     * Close the drain file, if one was opened.
+     */
+    void close() throws IOException {
+        if (nonNull(writer)) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    long getDrainedLines() {
+        return drainedLines;
+    }
+
+    private void accept(final char[] buffer,
+                        final int length) throws IOException {
+        if (drainPolicy == DrainPolicy.COUNT) {
+            long lines = drainedLines;
+            for (int i = 0; i < length; ++i) {
+                if (buffer[i] == '\n') {
+                    ++lines;
+                }
+            }
+            drainedLines = lines;
+        } else if (drainPolicy == DrainPolicy.ROTATING_FILE) {
+            write(buffer, length);
+        }
+    }
+
+    private void write(final char[] buffer,
+                       final int length) throws IOException {
+        if (isNull(writer)) {
+            fileSize = Files.exists(drainPath) ? Files.size(drainPath) : 0;
+            writer = openWriter(StandardOpenOption.APPEND);
+        }
+
+        if (fileSize > 0 && fileSize + length > maxFileSize) {
+            writer.close();
+            Files.move(drainPath, Paths.get(drainPath + ".1"), StandardCopyOption.REPLACE_EXISTING);
+
+            writer = openWriter(StandardOpenOption.TRUNCATE_EXISTING);
+            fileSize = 0;
+        }
+
+        writer.write(buffer, 0, length);
+        writer.flush();
+        fileSize += length;
+    }
+
+    private Writer openWriter(final StandardOpenOption openOption) throws IOException {
+        return Files.newBufferedWriter(drainPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, openOption);
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.util.DefaultThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Reads the output of many <code>ngrok</code> processes with a small, fixed pool of threads, splitting it in to
+ * lines that are handed to each process's {@link LineHandler}.
+ *
+ * <p>A {@link Process}'s output pipe can't be registered with a {@link java.nio.channels.Selector}, so each reader
+ * thread instead polls {@link InputStream#available()} across the streams assigned to it, and only reads what
+ * won't block. When a full pass finds nothing to read, the thread backs off briefly before polling again.
+ *
+ * <p>Reader threads only read. Each stream's lines are handled in order on the executor it was registered with,
+ * so a slow handler, such as a log event callback, only holds up its own stream. Once a stream has
+ * {@link #MAX_QUEUED_LINES} lines waiting to be handled, it is not read again until its handler catches up.
+ */
+class OutputMultiplexer {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(OutputMultiplexer.class));
+
+    private static final int DEFAULT_READER_THREADS = 2;
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    static final int MAX_QUEUED_LINES = 1024;
+
+    private static final Map<Object, OutputMultiplexer> DEFAULT_INSTANCES = new ConcurrentHashMap<>();
+
+    private final Reader[] readers;
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger nextReader = new AtomicInteger();
+
+    OutputMultiplexer(final int readerThreads,
+                      final ThreadFactory threadFactory) {
+        this.readers = new Reader[readerThreads];
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Get the multiplexer shared by all processes in this JVM whose reader threads come from the given factory.
+     * Every {@link DefaultThreadFactory} starts the same kind of thread, so they all share one multiplexer.
+     */
+    static OutputMultiplexer getDefault(final ThreadFactory threadFactory) {
+        final Object key = threadFactory instanceof DefaultThreadFactory ? DefaultThreadFactory.class : threadFactory;
+
+        return DEFAULT_INSTANCES.computeIfAbsent(key, k -> new OutputMultiplexer(DEFAULT_READER_THREADS, threadFactory));
+    }
+
+    /**
+     * Start reading lines from the given stream. Once <code>isOpen</code> no longer holds and nothing more is
+     * available, the stream is read to its end.
+     *
+     * @param inputStream The stream to read.
+     * @param isOpen      Whether more output may still be written to the stream.
+     * @param executor    The executor the stream's lines are handled on, in order.
+     * @param lineHandler The handler for each line read.
+     */
+    void register(final InputStream inputStream,
+                  final BooleanSupplier isOpen,
+                  final Executor executor,
+                  final LineHandler lineHandler) {
+        getReader(Math.floorMod(nextReader.getAndIncrement(), readers.length))
+                .pending.add(new Source(inputStream, isOpen, executor, lineHandler));
+    }
+
+    /**
+     * Get the number of streams currently being read.
+     */
+    int getSourceCount() {
+        int count = 0;
+        for (final Reader reader : readers) {
+            if (nonNull(reader)) {
+                count += reader.sourceCount;
+            }
+        }
+
+        return count;
+    }
+
+    private synchronized Reader getReader(final int index) {
+        if (readers[index] == null) {
+            final Reader reader = new Reader();
+            final Thread thread = threadFactory.newThread(reader);
+            thread.setName(String.format("ngrok-output-%s", index + 1));
+            thread.setDaemon(true);
+            thread.start();
+
+            readers[index] = reader;
+        }
+
+        return readers[index];
+    }
+
+    /**
+     * Receives the lines read from a stream registered with an {@link OutputMultiplexer}.
+     */
+    interface LineHandler {
+
+        /**
+         * Handle a line read from the stream, without its line terminator.
+         *
+         * @return <code>false</code> to stop reading the stream.
+         */
+        boolean onLine(String line);
+
+        /**
+         * Called once reading the stream stops for any reason.
+         *
+         * @param e The error that stopped reading, or <code>null</code>.
+         */
+        void onEnd(IOException e);
+    }
+
+    private static class Source {
+        private final InputStream inputStream;
+        private final BooleanSupplier isOpen;
+        private final Executor executor;
+        private final LineHandler lineHandler;
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        // Lines read but not yet handled, handed off so the reader thread never runs the handler itself
+        private final Queue<String> queuedLines = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queuedLineCount = new AtomicInteger();
+        private final AtomicBoolean handling = new AtomicBoolean();
+        private volatile boolean stopped;
+        private volatile boolean ended;
+        private volatile IOException endError;
+        // Only accessed while handling
+        private boolean endHandled;
+
+        private Source(final InputStream inputStream,
+                       final BooleanSupplier isOpen,
+                       final Executor executor,
+                       final LineHandler lineHandler) {
+            this.inputStream = inputStream;
+            this.isOpen = isOpen;
+            this.executor = executor;
+            this.lineHandler = lineHandler;
+        }
+
+        private boolean isBacklogged() {
+            return queuedLineCount.get() >= MAX_QUEUED_LINES;
+        }
+
+        /**
+         * Stop reading the source, and let the handler know once every line before it has been handled.
+         */
+        private void end(final IOException e) {
+            endError = e;
+            ended = true;
+            scheduleHandling();
+        }
+
+        private void scheduleHandling() {
+            if (!handling.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(this::handle);
+            } catch (RejectedExecutionException e) {
+                handle();
+            }
+        }
+
+        private void handle() {
+            do {
+                // Read before the lines, so every line queued before the end is handled before it
+                final boolean endReached = ended;
+
+                String queuedLine;
+                while (nonNull(queuedLine = queuedLines.poll())) {
+                    queuedLineCount.decrementAndGet();
+                    if (stopped) {
+                        continue;
+                    }
+
+                    try {
+                        if (!lineHandler.onLine(queuedLine)) {
+                            stopped = true;
+                        }
+                    } catch (RuntimeException e) {
+                        // A failing handler must not stop output being read for every other process
+                        LOGGER.log(Level.WARNING, "An error occurred handling ngrok output.", e);
+                        stopped = true;
+                    }
+                }
+
+                if (endReached && !endHandled) {
+                    endHandled = true;
+
+                    try {
+                        lineHandler.onEnd(endError);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "An error occurred handling the end of ngrok output.", e);
+                    }
+                }
+
+                handling.set(false);
+            } while ((!queuedLines.isEmpty() || (ended && !endHandled)) && handling.compareAndSet(false, true));
+        }
+
+        /**
+         * Split the bytes in to lines and hand each complete one to the handler.
+         *
+         * @return <code>false</code> if the handler asked to stop reading.
+         */
+        private boolean accept(final byte[] buffer,
+                               final int length) {
+            int start = 0;
+            for (int i = 0; i < length; ++i) {
+                if (buffer[i] == '\n') {
+                    append(buffer, start, i - start);
+                    start = i + 1;
+
+                    if (!flushLine()) {
+                        return false;
+                    }
+                }
+            }
+            append(buffer, start, length - start);
+
+            return true;
+        }
+
+        private void append(final byte[] buffer,
+                            final int offset,
+                            final int length) {
+            if (lineLength + length > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+            }
+            System.arraycopy(buffer, offset, line, lineLength, length);
+            lineLength += length;
+        }
+
+        private boolean flushLine() {
+            int length = lineLength;
+            if (length > 0 && line[length - 1] == '\r') {
+                --length;
+            }
+            lineLength = 0;
+
+            queuedLines.add(new String(line, 0, length, Charset.defaultCharset()));
+            queuedLineCount.incrementAndGet();
+            scheduleHandling();
+
+            return !stopped;
+        }
+    }
+
+    private static class Reader implements Runnable {
+        private final BlockingQueue<Source> pending = new LinkedBlockingQueue<>();
+        private final List<Source> sources = new ArrayList<>();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private volatile int sourceCount;
+
+        @Override
+        public void run() {
+            long backoff = MIN_BACKOFF_NANOS;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (sources.isEmpty()) {
+                        sources.add(pending.take());
+                    }
+                    pending.drainTo(sources);
+                    sourceCount = sources.size();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                boolean read = false;
+                final Iterator<Source> iterator = sources.iterator();
+                while (iterator.hasNext()) {
+                    final Source source = iterator.next();
+                    try {
+                        final int result = poll(source);
+                        if (result < 0) {
+                            remove(iterator, source, null);
+                        } else if (result > 0) {
+                            read = true;
+                        }
+                    } catch (IOException e) {
+                        remove(iterator, source, e);
+                    }
+                }
+
+                if (read) {
+                    backoff = MIN_BACKOFF_NANOS;
+                } else if (!sources.isEmpty()) {
+                    LockSupport.parkNanos(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                }
+            }
+        }
+
+        /**
+         * Read whatever is available from the source without blocking.
+         *
+         * @return The number of bytes read, or <code>-1</code> if the source is finished.
+         */
+        private int poll(final Source source) throws IOException {
+            if (source.stopped) {
+                return -1;
+            } else if (source.isBacklogged()) {
+                return 0;
+            }
+
+            final int available = source.inputStream.available();
+            if (available > 0) {
+                final int read = source.inputStream.read(buffer, 0, Math.min(available, buffer.length));
+                if (read > 0 && !source.accept(buffer, read)) {
+                    return -1;
+                }
+
+                return Math.max(read, 0);
+            } else if (source.isOpen.getAsBoolean()) {
+                return 0;
+            }
+
+            // Nothing more will be written, so reading to the end of the stream won't block for long
+            int read;
+            while ((read = source.inputStream.read(buffer)) != -1) {
+                if (!source.accept(buffer, read)) {
+                    return -1;
+                }
+            }
+            if (source.lineLength > 0) {
+                source.flushLine();
+            }
+
+            return -1;
+        }
+
+        private void remove(final Iterator<Source> iterator,
+                            final Source source,
+                            final IOException e) {
+            iterator.remove();
+            sourceCount = sources.size();
+
+            source.end(e);
+        }
+    }
+}
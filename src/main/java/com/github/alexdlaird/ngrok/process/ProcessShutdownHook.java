@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A single JVM shutdown hook that stops every {@link NgrokProcess} still running when the JVM exits. Processes are
+ * registered when they start and deregistered when they are stopped, so restarting <code>ngrok</code> does not
+ * accumulate hooks, or references to stopped processes, for the life of the JVM.
+ */
+final class ProcessShutdownHook {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(ProcessShutdownHook.class));
+
+    private static final Set<NgrokProcess> LIVE_PROCESSES = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean shuttingDown;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ProcessShutdownHook::stopAll, "java-ngrok-shutdown"));
+    }
+
+    private ProcessShutdownHook() {
+    }
+
+    static void register(final NgrokProcess ngrokProcess) {
+        LIVE_PROCESSES.add(ngrokProcess);
+    }
+
+    static void deregister(final NgrokProcess ngrokProcess) {
+        LIVE_PROCESSES.remove(ngrokProcess);
+    }
+
+    static boolean isRegistered(final NgrokProcess ngrokProcess) {
+        return LIVE_PROCESSES.contains(ngrokProcess);
+    }
+
+    static boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    private static void stopAll() {
+        shuttingDown = true;
+
+        // Each stop only issues the kill request, the processes are then awaited together
+        final CompletableFuture<?>[] stopFutures = LIVE_PROCESSES.stream()
+                .map(ngrokProcess -> {
+                    try {
+                        return ngrokProcess.stopAsync(Duration.ofSeconds(ngrokProcess.getJavaNgrokConfig().getStopTimeout()));
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "An error occurred stopping ngrok on shutdown", e);
+
+                        return CompletableFuture.completedFuture(null);
+                    }
+                })
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(stopFutures).join();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity buffer that retains the most recent elements added to it, overwriting the oldest once full.
+ * Adding is constant time regardless of capacity. It must only be added to from a single thread, but can be
+ * snapshotted from any thread.
+ *
+ * @param <E> The type of element.
+ */
+class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private volatile long writing;
+    private volatile long count;
+
+    RingBuffer(final int capacity) {
+        this.elements = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Add an element, overwriting the oldest if the buffer is full. Must only be called from a single thread.
+     */
+    void add(final E element) {
+        final long index = count;
+
+        // Announced before the element is written, so a snapshot can tell which of the slots it read may have been
+        // overwritten, and published after, so a snapshot never sees a count whose element is not yet written
+        writing = index + 1;
+        elements.set((int) (index % elements.length()), element);
+        count = index + 1;
+    }
+
+    /**
+     * Get the retained elements, oldest first. Elements added while the snapshot is taken may be left out, but
+     * those returned are always contiguous and in order.
+     */
+    List<E> snapshot() {
+        final int capacity = elements.length();
+        final long end = count;
+        final long start = Math.max(0, end - capacity);
+
+        final List<E> snapshot = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; ++i) {
+            snapshot.add(elements.get((int) (i % capacity)));
+        }
+
+        // Drop the oldest elements if the writer lapped them while they were being copied
+        final long overwritten = writing - capacity - start;
+        if (overwritten > 0) {
+            return Collections.unmodifiableList(snapshot.subList((int) Math.min(overwritten, snapshot.size()), snapshot.size()));
+        }
+
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Get the number of retained elements.
+     */
+    int size() {
+        return (int) Math.min(count, elements.length());
+    }
+}
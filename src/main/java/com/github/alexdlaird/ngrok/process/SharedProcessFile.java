@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.exception.NgrokException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.github.alexdlaird.util.StringUtils.isBlank;
+
+/**
+ * The lock and discovery file next to a <code>ngrok</code> config that let <code>ngrok</code> processes started
+ * from that config be shared by multiple JVMs on the same host. The discovery file records the PID and API URL of
+ * the running <code>ngrok</code> process, and a token for each {@link NgrokProcess} holding a reference to it.
+ */
+class SharedProcessFile {
+
+    private static final Map<Path, ReentrantLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path lockPath;
+    private final Path sharePath;
+    private final Path logPath;
+
+    SharedProcessFile(final Path configPath) {
+        final Path absoluteConfigPath = configPath.toAbsolutePath().normalize();
+
+        this.lockPath = Paths.get(absoluteConfigPath + ".lock");
+        this.sharePath = Paths.get(absoluteConfigPath + ".share");
+        this.logPath = Paths.get(absoluteConfigPath + ".log");
+    }
+
+    /**
+     * Run the given action while holding the host-wide lock for this config. The lock is also exclusive between
+     * threads of this JVM, which an OS file lock on its own is not.
+     */
+    <T> T withLock(final Supplier<T> action) {
+        final ReentrantLock jvmLock = JVM_LOCKS.computeIfAbsent(lockPath, path -> new ReentrantLock());
+        jvmLock.lock();
+        try (final FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock fileLock = channel.lock();
+            try {
+                return action.get();
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while locking %s.", lockPath), e);
+        } finally {
+            jvmLock.unlock();
+        }
+    }
+
+    /**
+     * Read the shared process, if one has been published. Tokens of holders whose JVM is no longer running are
+     * dropped.
+     */
+    State read() {
+        if (!Files.exists(sharePath)) {
+            return null;
+        }
+
+        final Properties properties = new Properties();
+        try (final InputStream in = Files.newInputStream(sharePath)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while reading %s.", sharePath), e);
+        }
+
+        final String pid = properties.getProperty("pid");
+        final String apiUrl = properties.getProperty("apiUrl");
+        if (isBlank(pid) || isBlank(apiUrl)) {
+            return null;
+        }
+
+        final Set<String> holders = Arrays.stream(properties.getProperty("holders", "").split(","))
+                .filter(holder -> !isBlank(holder) && isHolderAlive(holder))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return new State(Long.parseLong(pid), apiUrl, holders);
+    }
+
+    void write(final State state) {
+        final Properties properties = new Properties();
+        properties.setProperty("pid", String.valueOf(state.pid));
+        properties.setProperty("apiUrl", state.apiUrl);
+        properties.setProperty("holders", String.join(",", state.holders));
+
+        try {
+            final Path tmpPath = Paths.get(sharePath + ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmpPath)) {
+                properties.store(out, "java-ngrok shared process");
+            }
+            Files.move(tmpPath, sharePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while writing %s.", sharePath), e);
+        }
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(sharePath);
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while deleting %s.", sharePath), e);
+        }
+    }
+
+    /**
+     * Get the file the shared <code>ngrok</code> process logs to, since its output cannot be piped to a JVM that
+     * may exit before it does.
+     */
+    Path getLogPath() {
+        return logPath;
+    }
+
+    /**
+     * Truncate the log file if it has grown past the given size. The shared process appends to it, so it keeps
+     * writing to the start of the file. Its output is otherwise only truncated while the JVM that started it follows
+     * it, so this bounds it when holders come and go after that JVM has released it.
+     */
+    void truncateLog(final long maxFileSize) {
+        try (final FileChannel channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > maxFileSize) {
+                channel.truncate(0);
+            }
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while truncating %s.", logPath), e);
+        }
+    }
+
+    /**
+     * Create a token identifying a holder in this JVM.
+     */
+    static String createHolderToken(final String id) {
+        return String.format("%s:%s", ProcessHandle.current().pid(), id);
+    }
+
+    private static boolean isHolderAlive(final String holder) {
+        try {
+            final long jvmPid = Long.parseLong(holder.substring(0, holder.indexOf(':')));
+
+            return ProcessHandle.of(jvmPid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static class State {
+        final long pid;
+        final String apiUrl;
+        final Set<String> holders;
+
+        State(final long pid, final String apiUrl, final Set<String> holders) {
+            this.pid = pid;
+            this.apiUrl = apiUrl;
+            this.holders = holders;
+        }
+
+        boolean isProcessAlive() {
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        }
+
+        /**
+         * Check if the recorded PID is still alive and running the given <code>ngrok</code> binary, since the OS
+         * may have reused it if the process that started <code>ngrok</code> died without releasing it.
+         */
+        boolean isRunning(final Path ngrokPath) {
+            return ProcessHandle.of(pid)
+                    .filter(ProcessHandle::isAlive)
+                    .flatMap(processHandle -> processHandle.info().command())
+                    .map(command -> isSameFile(Paths.get(command), ngrokPath))
+                    .orElse(false);
+        }
+
+        private static boolean isSameFile(final Path path, final Path otherPath) {
+            try {
+                return Files.isSameFile(path, otherPath);
+            } catch (IOException e) {
+                return path.toAbsolutePath().normalize().equals(otherPath.toAbsolutePath().normalize());
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Monotonic timestamps for each phase of starting a <code>ngrok</code> process, measured from when
+ * {@link NgrokProcess} began launching it. Phases that were not reached, for instance because startup failed,
+ * have no timestamp.
+ */
+public class StartupTimings {
+
+    /**
+     * The phases of starting a <code>ngrok</code> process, in the order they are expected to be reached.
+     */
+    public enum Phase {
+        /**
+         * The binary was found and the config validated.
+         */
+        CONFIG_VALIDATED,
+        /**
+         * The <code>ngrok</code> process was spawned.
+         */
+        PROCESS_SPAWNED,
+        /**
+         * <code>ngrok</code> logged that its web service, and so its API, started.
+         */
+        WEB_SERVICE_STARTED,
+        /**
+         * <code>ngrok</code> logged that its tunnel session started.
+         */
+        TUNNEL_SESSION_STARTED,
+        /**
+         * <code>ngrok</code> logged that its client session was established.
+         */
+        CLIENT_SESSION_ESTABLISHED,
+        /**
+         * The <code>ngrok</code> API responded to a health check, and the process is considered started.
+         */
+        HEALTH_CONFIRMED
+    }
+
+    private final long launchedAt = System.nanoTime();
+    private final Map<Phase, Long> phaseTimes = Collections.synchronizedMap(new EnumMap<>(Phase.class));
+
+    void record(final Phase phase) {
+        phaseTimes.putIfAbsent(phase, System.nanoTime());
+    }
+
+    /**
+     * Get the time from launch until the given phase was reached.
+     *
+     * @param phase The phase.
+     * @return The elapsed time, or <code>null</code> if the phase was not reached.
+     */
+    public Duration getElapsed(final Phase phase) {
+        final Long phaseTime = phaseTimes.get(phase);
+        if (isNull(phaseTime)) {
+            return null;
+        }
+
+        return Duration.ofNanos(phaseTime - launchedAt);
+    }
+
+    /**
+     * Get the time spent in the given phase, from when the last phase before it was reached (or from launch).
+     *
+     * @param phase The phase.
+     * @return The time spent in the phase, or <code>null</code> if the phase was not reached.
+     */
+    public Duration getPhaseDuration(final Phase phase) {
+        final Long phaseTime = phaseTimes.get(phase);
+        if (isNull(phaseTime)) {
+            return null;
+        }
+
+        long previousTime = launchedAt;
+        for (int i = phase.ordinal() - 1; i >= 0; --i) {
+            final Long time = phaseTimes.get(Phase.values()[i]);
+            if (nonNull(time)) {
+                previousTime = time;
+                break;
+            }
+        }
+
+        return Duration.ofNanos(phaseTime - previousTime);
+    }
+
+    /**
+     * Get the time from launch until the last phase that was reached.
+     */
+    public Duration getTotal() {
+        long lastTime = launchedAt;
+        synchronized (phaseTimes) {
+            for (final Long time : phaseTimes.values()) {
+                lastTime = Math.max(lastTime, time);
+            }
+        }
+
+        return Duration.ofNanos(lastTime - launchedAt);
+    }
+
+    /**
+     * Get whether startup reached {@link Phase#HEALTH_CONFIRMED}.
+     */
+    public boolean isStarted() {
+        return phaseTimes.containsKey(Phase.HEALTH_CONFIRMED);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("StartupTimings{");
+        for (final Phase phase : Phase.values()) {
+            final Duration elapsed = getElapsed(phase);
+            if (nonNull(elapsed)) {
+                stringBuilder.append(phase).append('=').append(elapsed.toMillis()).append("ms, ");
+            }
+        }
+        stringBuilder.append("total=").append(getTotal().toMillis()).append("ms}");
+
+        return stringBuilder.toString();
+    }
+}
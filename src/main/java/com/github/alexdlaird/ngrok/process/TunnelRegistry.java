@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The tunnels known to be open on a <code>ngrok</code> process, shared by every
+ * {@link com.github.alexdlaird.ngrok.NgrokClient} using that process through a {@link NgrokProcessRegistry}, so a
+ * tunnel opened by one client is seen by the others.
+ */
+public class TunnelRegistry {
+
+    private final Map<String, Tunnel> currentTunnels = new ConcurrentHashMap<>();
+    private final Map<String, CreateTunnel> tunnelDefinitions = new ConcurrentHashMap<>();
+
+    /**
+     * Get the open tunnels, keyed by their public URL.
+     */
+    public Map<String, Tunnel> getCurrentTunnels() {
+        return currentTunnels;
+    }
+
+    /**
+     * Get the definitions the open tunnels were created from, keyed by their public URL, so they can be re-created
+     * if <code>ngrok</code> is restarted.
+     */
+    public Map<String, CreateTunnel> getTunnelDefinitions() {
+        return tunnelDefinitions;
+    }
+
+    /**
+     * Forget all tunnels.
+     */
+    public void clear() {
+        currentTunnels.clear();
+        tunnelDefinitions.clear();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.exception.NgrokException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A cache of <code>ngrok</code> versions, keyed by a fingerprint of the binary's path, size and modification time,
+ * so the version only has to be read from the binary again once the binary changes. Versions are cached in memory
+ * for the life of the JVM, and optionally in a file, so they survive restarts.
+ */
+class VersionCache {
+
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(VersionCache.class));
+
+    private static final Map<String, String> VERSIONS = new ConcurrentHashMap<>();
+
+    private final Path cachePath;
+
+    VersionCache(final Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    /**
+     * Get the cached version of the given binary, or load and cache it if the binary has changed.
+     */
+    String get(final Path ngrokPath, final Supplier<String> loader) {
+        final String fingerprint = fingerprint(ngrokPath);
+
+        String version = VERSIONS.get(fingerprint);
+        if (nonNull(version)) {
+            return version;
+        }
+
+        if (nonNull(cachePath)) {
+            version = readCacheFile().getProperty(fingerprint);
+        }
+        if (isNull(version)) {
+            version = loader.get();
+
+            if (nonNull(cachePath)) {
+                writeCacheFile(fingerprint, version);
+            }
+        }
+
+        VERSIONS.put(fingerprint, version);
+
+        return version;
+    }
+
+    static String fingerprint(final Path ngrokPath) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(ngrokPath, BasicFileAttributes.class);
+
+            return String.format("%s|%s|%s", ngrokPath.toAbsolutePath().normalize(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            throw new NgrokException(String.format("An error occurred while reading the ngrok binary: %s", ngrokPath), e);
+        }
+    }
+
+    private Properties readCacheFile() {
+        final Properties properties = new Properties();
+        if (!Files.exists(cachePath)) {
+            return properties;
+        }
+
+        try (final InputStream in = Files.newInputStream(cachePath)) {
+            properties.load(in);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, String.format("Unable to read the ngrok version cache: %s", cachePath), e);
+        }
+
+        return properties;
+    }
+
+    private synchronized void writeCacheFile(final String fingerprint, final String version) {
+        final Properties properties = readCacheFile();
+        properties.setProperty(fingerprint, version);
+
+        try {
+            if (nonNull(cachePath.getParent())) {
+                Files.createDirectories(cachePath.getParent());
+            }
+
+            final Path tmpPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), "ngrok-version", ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmpPath)) {
+                properties.store(out, null);
+            }
+            Files.move(tmpPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, String.format("Unable to write the ngrok version cache: %s", cachePath), e);
+        }
+    }
+}
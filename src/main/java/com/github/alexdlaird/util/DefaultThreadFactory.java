@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * The default {@link ThreadFactory} for threads <code>java-ngrok</code> starts, such as those monitoring
+ * <code>ngrok</code>'s logs and running asynchronous API calls. On JDK 21+, these are virtual threads, which are
+ * cheap enough that an idle monitor blocked on <code>ngrok</code>'s output for the life of the process costs next
+ * to nothing. On older JDKs, these are platform threads.
+ */
+public class DefaultThreadFactory implements ThreadFactory {
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        if (nonNull(VIRTUAL_THREAD_FACTORY)) {
+            return VIRTUAL_THREAD_FACTORY.newThread(runnable);
+        }
+
+        return new Thread(runnable, String.format("java-ngrok-%s", threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Whether threads from this factory are virtual threads.
+     */
+    public static boolean isVirtual() {
+        return nonNull(VIRTUAL_THREAD_FACTORY);
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+
+        // Resolved reflectively so the library can still be built for, and run on, JDK 11+
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            final Method factoryMethod = builderClass.getMethod("factory");
+
+            final Object builder = nameMethod.invoke(Thread.class.getMethod("ofVirtual").invoke(null), "java-ngrok-", 1L);
+
+            return (ThreadFactory) factoryMethod.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
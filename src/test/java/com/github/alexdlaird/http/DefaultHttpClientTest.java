@@ -33,10 +33,13 @@ import com.github.alexdlaird.ngrok.protocol.Tunnels;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.ServerSocket;
 import java.net.URL;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_CREATED;
@@ -44,6 +47,7 @@ import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -189,4 +193,23 @@ class DefaultHttpClientTest extends NgrokTestCase {
         assertNotNull(capturedRequest.getStart());
         assertNotNull(capturedRequest.getTunnelName());
     }
+
+    @Test
+    public void testGetTimeoutOnStalledServer() throws IOException {
+        // GIVEN
+        final DefaultHttpClient timeoutHttpClient = new DefaultHttpClient.Builder()
+                .withTimeout(500)
+                .build();
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            // The connection is accepted in to the backlog, but the request is never answered
+            final String url = String.format("http://localhost:%s/api/tunnels", serverSocket.getLocalPort());
+            final long start = System.nanoTime();
+
+            // WHEN
+            assertThrows(HttpClientException.class, () -> timeoutHttpClient.get(url, Tunnels.class));
+
+            // THEN
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(5000L));
+        }
+    }
 }
@@ -26,8 +26,11 @@ package com.github.alexdlaird.ngrok;
 import com.github.alexdlaird.exception.JavaNgrokHTTPException;
 import com.github.alexdlaird.http.Response;
 import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.Readiness;
+import com.github.alexdlaird.ngrok.conf.RestartPolicy;
 import com.github.alexdlaird.ngrok.installer.NgrokVersion;
 import com.github.alexdlaird.ngrok.process.NgrokProcess;
+import com.github.alexdlaird.ngrok.process.NgrokProcessRegistry;
 import com.github.alexdlaird.ngrok.protocol.BindTls;
 import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
 import com.github.alexdlaird.ngrok.protocol.Proto;
@@ -36,6 +39,7 @@ import com.github.alexdlaird.ngrok.protocol.Tunnel;
 import com.github.alexdlaird.ngrok.protocol.Version;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -43,8 +47,10 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static com.github.alexdlaird.util.StringUtils.isNotBlank;
 import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
@@ -57,9 +63,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class NgrokClientTest extends NgrokTestCase {
 
@@ -158,6 +167,106 @@ class NgrokClientTest extends NgrokTestCase {
         assertEquals(0, tunnel.getMetrics().get("conns").getRate15());
     }
 
+    @Test
+    public void testConnectAsyncV3() {
+        // GIVEN
+        assertFalse(ngrokClientV3.getNgrokProcess().isRunning());
+        final CreateTunnel createTunnel = new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build();
+
+        // WHEN
+        final Tunnel tunnel = ngrokClientV3.connectAsync(createTunnel).join();
+
+        // THEN
+        assertTrue(ngrokClientV3.getNgrokProcess().isRunning());
+        assertThat(tunnel.getName(), startsWith("http-5000-"));
+        assertEquals("http://localhost:5000", tunnel.getConfig().getAddr());
+        assertThat(tunnel.getPublicUrl(), startsWith("https://"));
+    }
+
+    @Test
+    public void testConnectWithApiReadinessV3() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withReadiness(Readiness.API)
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig, ngrokInstaller);
+        final NgrokClient ngrokClient = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfig)
+                .withNgrokProcess(ngrokProcessV3_2)
+                .build();
+        final CreateTunnel createTunnel = new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build();
+
+        // WHEN
+        final Tunnel tunnel = ngrokClient.connect(createTunnel);
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.getProcessMonitor().isSessionEstablished());
+        assertThat(tunnel.getPublicUrl(), startsWith("https://"));
+    }
+
+    @Test
+    public void testNgrokProcessRegistryV3() {
+        // GIVEN
+        final NgrokProcessRegistry ngrokProcessRegistry = new NgrokProcessRegistry();
+        final NgrokClient ngrokClient1 = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withNgrokProcessRegistry(ngrokProcessRegistry)
+                .build();
+        final NgrokClient ngrokClient2 = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withNgrokProcessRegistry(ngrokProcessRegistry)
+                .build();
+        ngrokProcessV3_2 = ngrokClient1.getNgrokProcess();
+        final CreateTunnel createTunnel = new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build();
+
+        // WHEN
+        final Tunnel tunnel = ngrokClient1.connect(createTunnel);
+        ngrokClient1.kill();
+
+        // THEN
+        assertSame(ngrokClient1.getNgrokProcess(), ngrokClient2.getNgrokProcess());
+        assertEquals(1, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+        assertTrue(ngrokClient2.getNgrokProcess().isRunning());
+        assertEquals(tunnel.getPublicUrl(), ngrokClient2.getTunnels().get(0).getPublicUrl());
+
+        // WHEN
+        ngrokClient2.kill();
+
+        // THEN
+        assertEquals(0, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+        assertFalse(ngrokClient2.getNgrokProcess().isRunning());
+        assertThrows(IllegalStateException.class, () -> ngrokClient2.connect(createTunnel));
+        assertFalse(ngrokClient2.getNgrokProcess().isRunning());
+    }
+
+    @Test
+    public void testNgrokProcessRegistryWithRestartPolicy() {
+        // GIVEN
+        final NgrokProcessRegistry ngrokProcessRegistry = new NgrokProcessRegistry();
+        final NgrokClient.Builder builder = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withNgrokProcessRegistry(ngrokProcessRegistry)
+                .withRestartPolicy(new RestartPolicy.Builder().build());
+
+        // WHEN
+        assertThrows(IllegalArgumentException.class, builder::build);
+
+        // THEN
+        assertEquals(0, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+    }
+
     @Test
     public void testConnectName() {
         // GIVEN
@@ -188,6 +297,82 @@ class NgrokClientTest extends NgrokTestCase {
         assertThat(exception.getBody(), containsString("account may not run more than 2 tunnels"));
     }
 
+    @Test
+    public void testRestartPolicyRestoresTunnelsAfterExternalKill() throws InterruptedException {
+        // GIVEN
+        final Function<Map<String, Tunnel>, Void> tunnelsRestoredCallbackMock = mock(Function.class);
+        final RestartPolicy restartPolicy = new RestartPolicy.Builder()
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withTunnelsRestoredCallback(tunnelsRestoredCallbackMock)
+                .build();
+        final NgrokClient ngrokClient = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokProcess(ngrokProcessV3)
+                .withRestartPolicy(restartPolicy)
+                .build();
+        final Tunnel tunnel = ngrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build());
+        assertTrue(ngrokClient.getNgrokSupervisor().isSupervising());
+
+        // WHEN
+        final ProcessHandle processHandle = ProcessHandle.allProcesses()
+                .filter(p -> p.info().command().orElse("").contains(javaNgrokConfigV3.getNgrokPath().toString()))
+                .findFirst().orElse(null);
+        assertNotNull(processHandle);
+        processHandle.destroy();
+        final long timeoutTime = System.currentTimeMillis() + 30 * 1000;
+        while (ngrokClient.getNgrokSupervisor().getRestartCount() == 0 && System.currentTimeMillis() < timeoutTime) {
+            Thread.sleep(50);
+        }
+
+        // THEN
+        assertEquals(1, ngrokClient.getNgrokSupervisor().getRestartCount());
+        assertNotNull(ngrokClient.getNgrokSupervisor().getLastRecoveryTime());
+        assertTrue(ngrokProcessV3.isRunning());
+        final List<Tunnel> tunnels = ngrokClient.getTunnels();
+        assertEquals(1, tunnels.size());
+        assertEquals("http://localhost:5000", tunnels.get(0).getConfig().getAddr());
+        assertNotEquals(tunnel.getPublicUrl(), tunnels.get(0).getPublicUrl());
+        final ArgumentCaptor<Map<String, Tunnel>> restoredTunnelsCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(tunnelsRestoredCallbackMock).apply(restoredTunnelsCaptor.capture());
+        assertEquals(tunnels.get(0).getPublicUrl(), restoredTunnelsCaptor.getValue().get(tunnel.getPublicUrl()).getPublicUrl());
+
+        ngrokClient.kill();
+        assertFalse(ngrokClient.getNgrokSupervisor().isSupervising());
+    }
+
+    @Test
+    public void testRestartPolicyDoesNotRestartAfterStop() throws InterruptedException {
+        // GIVEN
+        final RestartPolicy restartPolicy = new RestartPolicy.Builder()
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withHealthCheckInterval(Duration.ofMillis(100))
+                .build();
+        final NgrokClient ngrokClient = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokProcess(ngrokProcessV3)
+                .withRestartPolicy(restartPolicy)
+                .build();
+        ngrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build());
+        assertTrue(ngrokClient.getNgrokSupervisor().isSupervising());
+
+        // WHEN
+        ngrokProcessV3.stopAsync(Duration.ofSeconds(5)).join();
+        Thread.sleep(1000);
+
+        // THEN
+        assertTrue(ngrokClient.getNgrokSupervisor().isSupervising());
+        assertEquals(0, ngrokClient.getNgrokSupervisor().getRestartCount());
+        assertFalse(ngrokProcessV3.isRunning());
+
+        ngrokClient.kill();
+    }
+
     @Test
     public void testGetTunnels() {
         // GIVEN
@@ -762,6 +947,48 @@ class NgrokClientTest extends NgrokTestCase {
         assertThat(sshTunnel.getPublicUrl(), startsWith("tcp://"));
     }
 
+    @Test
+    public void testStartConfigTunnelsV3() {
+        final String ngrokAuthToken = System.getenv("NGROK_AUTHTOKEN");
+        assumeTrue(isNotBlank(System.getenv("NGROK_AUTHTOKEN")), "NGROK_AUTHTOKEN environment variable not set");
+
+        // GIVEN
+        final Map<String, Object> httpTunnelConfig = Map.of(
+                "proto", "http",
+                "addr", "8000",
+                "schemes", List.of("https"));
+        final Map<String, Object> tcpTunnelConfig = Map.of(
+                "proto", "tcp",
+                "addr", "22");
+        final Map<String, Object> tunnelsConfig = Map.of(
+                "http-tunnel", httpTunnelConfig,
+                "tcp-tunnel", tcpTunnelConfig);
+        final Map<String, Object> config = Map.of("tunnels", tunnelsConfig);
+
+        final Path configPath2 = Paths.get(javaNgrokConfigV3.getConfigPath().getParent().toString(), "config2.yml");
+        ngrokInstaller.installDefaultConfig(configPath2, config, javaNgrokConfigV3.getNgrokVersion());
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withConfigPath(configPath2)
+                .withAuthToken(ngrokAuthToken)
+                .withStartAllTunnels()
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+        final NgrokClient ngrokClient2 = new NgrokClient.Builder()
+                .withJavaNgrokConfig(javaNgrokConfig2)
+                .withNgrokProcess(ngrokProcessV3_2)
+                .build();
+
+        // WHEN
+        final List<Tunnel> tunnels = ngrokClient2.startConfigTunnels();
+
+        // THEN
+        assertEquals(2, tunnels.size());
+        assertEquals(2, ngrokProcessV3_2.getProcessMonitor().getStartedTunnels().size());
+        for (final Tunnel tunnel : tunnels) {
+            assertEquals(tunnel.getPublicUrl(), ngrokProcessV3_2.getProcessMonitor().getStartedTunnels().get(tunnel.getName()));
+        }
+    }
+
     @Test
     public void testTunnelDefinitionsJavaNgrokDefaultWithOverrides() {
         final String ngrokAuthToken = System.getenv("NGROK_AUTHTOKEN");
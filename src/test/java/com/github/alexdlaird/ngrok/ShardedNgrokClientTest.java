@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok;
+
+import com.github.alexdlaird.exception.JavaNgrokException;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.installer.NgrokVersion;
+import com.github.alexdlaird.ngrok.process.NgrokProcess;
+import com.github.alexdlaird.ngrok.protocol.CreateTunnel;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardedNgrokClientTest extends NgrokTestCase {
+
+    private ShardedNgrokClient shardedNgrokClient;
+
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+
+        final Path configPath2 = Paths.get(javaNgrokConfigV3.getConfigPath().getParent().toString(), "configV3_2.yml");
+        final JavaNgrokConfig javaNgrokConfigV3_2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withConfigPath(configPath2)
+                .build();
+        ngrokInstaller.installDefaultConfig(javaNgrokConfigV3.getConfigPath(), Map.of("web_addr", "localhost:4040"), NgrokVersion.V3);
+        ngrokInstaller.installDefaultConfig(configPath2, Map.of("web_addr", "localhost:4041"), NgrokVersion.V3);
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfigV3_2, ngrokInstaller);
+
+        shardedNgrokClient = new ShardedNgrokClient.Builder()
+                .withNgrokClient(new NgrokClient.Builder()
+                        .withJavaNgrokConfig(javaNgrokConfigV3)
+                        .withNgrokProcess(ngrokProcessV3)
+                        .build())
+                .withNgrokClient(new NgrokClient.Builder()
+                        .withJavaNgrokConfig(javaNgrokConfigV3_2)
+                        .withNgrokProcess(ngrokProcessV3_2)
+                        .build())
+                .build();
+    }
+
+    @Test
+    public void testConnectLeastTunnels() {
+        // WHEN
+        final Tunnel tunnel1 = shardedNgrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build());
+        final Tunnel tunnel2 = shardedNgrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5001)
+                .build());
+
+        // THEN
+        assertTrue(ngrokProcessV3.isRunning());
+        assertTrue(ngrokProcessV3_2.isRunning());
+        final List<Tunnel> tunnels = shardedNgrokClient.getTunnels();
+        assertEquals(2, tunnels.size());
+        assertTrue(tunnels.stream().anyMatch(t -> t.getPublicUrl().equals(tunnel1.getPublicUrl())));
+        assertTrue(tunnels.stream().anyMatch(t -> t.getPublicUrl().equals(tunnel2.getPublicUrl())));
+
+        // WHEN
+        shardedNgrokClient.disconnect(tunnel2.getPublicUrl());
+
+        // THEN
+        final List<Tunnel> remainingTunnels = shardedNgrokClient.getTunnels();
+        assertEquals(1, remainingTunnels.size());
+        assertEquals(tunnel1.getPublicUrl(), remainingTunnels.get(0).getPublicUrl());
+    }
+
+    @Test
+    public void testGetTunnelsShardFailureKeepsOwners() {
+        // GIVEN
+        final NgrokClient ngrokClient1 = mock(NgrokClient.class);
+        final NgrokClient ngrokClient2 = mock(NgrokClient.class);
+        final Tunnel tunnel = mock(Tunnel.class);
+        when(ngrokClient1.getJavaNgrokConfig()).thenReturn(javaNgrokConfigV3);
+        when(ngrokClient2.getJavaNgrokConfig()).thenReturn(javaNgrokConfigV3);
+        when(tunnel.getPublicUrl()).thenReturn("https://tunnel.ngrok.io");
+        when(ngrokClient1.connect(any())).thenReturn(tunnel);
+        when(ngrokClient1.getTunnels()).thenReturn(List.of(tunnel));
+        when(ngrokClient2.getTunnels()).thenThrow(new JavaNgrokException("Shard is down."));
+        final ShardedNgrokClient mockShardedNgrokClient = new ShardedNgrokClient.Builder()
+                .withNgrokClients(List.of(ngrokClient1, ngrokClient2))
+                .build();
+        mockShardedNgrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build());
+
+        // WHEN
+        assertThrows(JavaNgrokException.class, mockShardedNgrokClient::getTunnels);
+        mockShardedNgrokClient.disconnect("https://tunnel.ngrok.io");
+
+        // THEN
+        verify(ngrokClient1).disconnect("https://tunnel.ngrok.io");
+    }
+
+    @Test
+    public void testDisconnectFailureKeepsOwner() {
+        // GIVEN
+        final NgrokClient ngrokClient = mock(NgrokClient.class);
+        final Tunnel tunnel = mock(Tunnel.class);
+        when(ngrokClient.getJavaNgrokConfig()).thenReturn(javaNgrokConfigV3);
+        when(tunnel.getPublicUrl()).thenReturn("https://tunnel.ngrok.io");
+        when(ngrokClient.connect(any())).thenReturn(tunnel);
+        doThrow(new JavaNgrokException("DELETE failed.")).doNothing().when(ngrokClient).disconnect("https://tunnel.ngrok.io");
+        final ShardedNgrokClient mockShardedNgrokClient = new ShardedNgrokClient.Builder()
+                .withNgrokClient(ngrokClient)
+                .build();
+        mockShardedNgrokClient.connect(new CreateTunnel.Builder()
+                .withNgrokVersion(NgrokVersion.V3)
+                .withAddr(5000)
+                .build());
+
+        // WHEN
+        assertThrows(JavaNgrokException.class, () -> mockShardedNgrokClient.disconnect("https://tunnel.ngrok.io"));
+        mockShardedNgrokClient.disconnect("https://tunnel.ngrok.io");
+
+        // THEN
+        verify(ngrokClient, times(2)).disconnect("https://tunnel.ngrok.io");
+    }
+
+    @Test
+    public void testKill() {
+        // GIVEN
+        shardedNgrokClient.getTunnels();
+        assertTrue(ngrokProcessV3.isRunning());
+        assertTrue(ngrokProcessV3_2.isRunning());
+
+        // WHEN
+        shardedNgrokClient.kill();
+
+        // THEN
+        assertFalse(ngrokProcessV3.isRunning());
+        assertFalse(ngrokProcessV3_2.isRunning());
+    }
+
+    @Test
+    public void testBuildNoShards() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new ShardedNgrokClient.Builder().build());
+    }
+
+    @Test
+    public void testBuildDuplicateShards() {
+        // GIVEN
+        final NgrokClient ngrokClient = mock(NgrokClient.class);
+
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new ShardedNgrokClient.Builder()
+                .withNgrokClient(ngrokClient)
+                .withNgrokClient(ngrokClient)
+                .build());
+    }
+}
@@ -26,15 +26,26 @@ package com.github.alexdlaird.ngrok.conf;
 import com.github.alexdlaird.ngrok.installer.NgrokVersion;
 import com.github.alexdlaird.ngrok.process.NgrokLog;
 import com.github.alexdlaird.ngrok.protocol.Region;
+import com.github.alexdlaird.util.DefaultThreadFactory;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.logging.Level;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JavaNgrokConfigTest {
     @Test
@@ -43,6 +54,7 @@ public class JavaNgrokConfigTest {
         final Path ngrokPath = Paths.get("custom-ngrok");
         final Path configPath = Paths.get("custom-config");
         final Function<NgrokLog, Void> logEventCallback = ngrokLog -> null;
+        final ThreadFactory threadFactory = Thread::new;
 
         // WHEN
         final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
@@ -51,9 +63,25 @@ public class JavaNgrokConfigTest {
                 .withAuthToken("auth-token")
                 .withRegion(Region.EU)
                 .withoutMonitoring()
+                .withDrainPolicy(DrainPolicy.COUNT)
+                .withDrainPath(Paths.get("ngrok-drain.log"))
+                .withDrainMaxFileSize(1024)
                 .withMaxLogs(50)
                 .withLogEventCallback(logEventCallback)
                 .withStartupTimeout(5)
+                .withReadiness(Readiness.API)
+                .withStopTimeout(2)
+                .withHealthCheckCacheTimeout(0)
+                .withApiUrl("http://127.0.0.1:4040")
+                .withWebAddr("127.0.0.1:4041")
+                .withStartTunnels(List.of("web", "ssh"))
+                .withMultiplexedOutput()
+                .withLogEventQueueSize(1000)
+                .withLogEventOverflowPolicy(LogEventOverflowPolicy.SAMPLE)
+                .withLogEventSampleRate(5)
+                .withMinLogLevel(Level.WARNING)
+                .withSharedProcess()
+                .withThreadFactory(threadFactory)
                 .withNgrokVersion(NgrokVersion.V2)
                 .build();
 
@@ -63,12 +91,81 @@ public class JavaNgrokConfigTest {
         assertEquals("auth-token", javaNgrokConfig.getAuthToken());
         assertEquals(Region.EU, javaNgrokConfig.getRegion());
         assertFalse(javaNgrokConfig.isKeepMonitoring());
+        assertEquals(DrainPolicy.COUNT, javaNgrokConfig.getDrainPolicy());
+        assertEquals(Paths.get("ngrok-drain.log"), javaNgrokConfig.getDrainPath());
+        assertEquals(1024, javaNgrokConfig.getDrainMaxFileSize());
         assertEquals(50, javaNgrokConfig.getMaxLogs());
         assertEquals(logEventCallback, javaNgrokConfig.getLogEventCallback());
         assertEquals(5, javaNgrokConfig.getStartupTime());
+        assertEquals(Readiness.API, javaNgrokConfig.getReadiness());
+        assertEquals(2, javaNgrokConfig.getStopTimeout());
+        assertEquals(0, javaNgrokConfig.getHealthCheckCacheTimeout());
+        assertEquals("http://127.0.0.1:4040", javaNgrokConfig.getApiUrl());
+        assertEquals("127.0.0.1:4041", javaNgrokConfig.getWebAddr());
+        assertEquals(List.of("web", "ssh"), javaNgrokConfig.getStartTunnels());
+        assertFalse(javaNgrokConfig.isStartAllTunnels());
+        assertTrue(javaNgrokConfig.isMultiplexedOutput());
+        assertEquals(1000, javaNgrokConfig.getLogEventQueueSize());
+        assertEquals(LogEventOverflowPolicy.SAMPLE, javaNgrokConfig.getLogEventOverflowPolicy());
+        assertEquals(5, javaNgrokConfig.getLogEventSampleRate());
+        assertEquals(Level.WARNING, javaNgrokConfig.getMinLogLevel());
+        assertTrue(javaNgrokConfig.isSharedProcess());
+        assertEquals(threadFactory, javaNgrokConfig.getThreadFactory());
         assertEquals(NgrokVersion.V2, javaNgrokConfig.getNgrokVersion());
     }
 
+    @Test
+    public void testJavaNgrokConfigDefaultThreadFactory() throws InterruptedException {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder().build();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // WHEN
+        javaNgrokConfig.getExecutor().execute(latch::countDown);
+
+        // THEN
+        assertThat(javaNgrokConfig.getThreadFactory(), instanceOf(DefaultThreadFactory.class));
+        assertEquals(Runtime.version().feature() >= 21, DefaultThreadFactory.isVirtual());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testJavaNgrokConfigExecutorReusesPlatformThreads() throws InterruptedException {
+        // GIVEN
+        final AtomicInteger threadCount = new AtomicInteger();
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withThreadFactory(runnable -> {
+                    threadCount.incrementAndGet();
+                    return new Thread(runnable);
+                })
+                .build();
+        final CountDownLatch latch1 = new CountDownLatch(1);
+        final CountDownLatch latch2 = new CountDownLatch(1);
+
+        // WHEN
+        javaNgrokConfig.getExecutor().execute(latch1::countDown);
+        assertTrue(latch1.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        javaNgrokConfig.getExecutor().execute(latch2::countDown);
+
+        // THEN
+        assertTrue(latch2.await(5, TimeUnit.SECONDS));
+        assertEquals(1, threadCount.get());
+        assertSame(javaNgrokConfig.getExecutor(), new JavaNgrokConfig.Builder(javaNgrokConfig).build().getExecutor());
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidDrainMaxFileSize() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withDrainMaxFileSize(0));
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidWebAddr() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withWebAddr("127.0.0.1"));
+    }
+
     @Test
     public void testJavaNgrokConfigWithInvalidMaxLogs() {
         // WHEN
@@ -80,4 +177,34 @@ public class JavaNgrokConfigTest {
         // WHEN
         assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withStartupTimeout(0));
     }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidStopTimeout() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withStopTimeout(0));
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidLogEventQueueSize() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withLogEventQueueSize(-1));
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidLogEventSampleRate() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withLogEventSampleRate(0));
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidHealthCheckCacheTimeout() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withHealthCheckCacheTimeout(-1));
+    }
+
+    @Test
+    public void testJavaNgrokConfigWithInvalidApiUrl() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new JavaNgrokConfig.Builder().withApiUrl("file:///etc/passwd"));
+    }
 }
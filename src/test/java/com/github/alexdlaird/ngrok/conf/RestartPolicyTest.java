@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.conf;
+
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RestartPolicyTest {
+    @Test
+    public void testRestartPolicy() {
+        // GIVEN
+        final Function<Map<String, Tunnel>, Void> tunnelsRestoredCallback = restoredTunnels -> null;
+
+        // WHEN
+        final RestartPolicy restartPolicy = new RestartPolicy.Builder()
+                .withHealthCheckInterval(Duration.ofSeconds(1))
+                .withMaxFailedHealthChecks(2)
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withMaxBackoff(Duration.ofSeconds(1))
+                .withMaxAttempts(5)
+                .withTunnelsRestoredCallback(tunnelsRestoredCallback)
+                .build();
+
+        // THEN
+        assertEquals(Duration.ofSeconds(1), restartPolicy.getHealthCheckInterval());
+        assertEquals(2, restartPolicy.getMaxFailedHealthChecks());
+        assertEquals(Duration.ofMillis(100), restartPolicy.getInitialBackoff());
+        assertEquals(Duration.ofSeconds(1), restartPolicy.getMaxBackoff());
+        assertEquals(5, restartPolicy.getMaxAttempts());
+        assertEquals(tunnelsRestoredCallback, restartPolicy.getTunnelsRestoredCallback());
+    }
+
+    @Test
+    public void testGetBackoff() {
+        // GIVEN
+        final RestartPolicy restartPolicy = new RestartPolicy.Builder()
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withMaxBackoff(Duration.ofMillis(1000))
+                .build();
+
+        // THEN
+        assertEquals(Duration.ofMillis(50), restartPolicy.getBackoff(1, 0));
+        assertEquals(Duration.ofMillis(100), restartPolicy.getBackoff(2, 0));
+        assertEquals(Duration.ofMillis(400), restartPolicy.getBackoff(4, 0));
+        assertEquals(Duration.ofMillis(500), restartPolicy.getBackoff(10, 0));
+        assertEquals(Duration.ofMillis(999), restartPolicy.getBackoff(10, 0.999));
+    }
+
+    @Test
+    public void testRestartPolicyWithInvalidBackoff() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new RestartPolicy.Builder().withInitialBackoff(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RestartPolicy.Builder()
+                .withInitialBackoff(Duration.ofSeconds(10))
+                .withMaxBackoff(Duration.ofSeconds(1))
+                .build());
+    }
+}
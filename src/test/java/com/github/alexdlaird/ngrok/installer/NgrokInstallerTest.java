@@ -32,9 +32,14 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.github.alexdlaird.ngrok.installer.NgrokInstaller.WINDOWS;
 import static com.github.alexdlaird.ngrok.installer.NgrokInstaller.getNgrokBin;
@@ -127,6 +132,46 @@ class NgrokInstallerTest extends NgrokTestCase {
         assertTrue(Files.exists(javaNgrokConfigV2Tmp.getConfigPath()));
     }
 
+    @Test
+    public void testSetAuthTokenMultipleConfigs() throws IOException {
+        // GIVEN
+        final Path configDir = Files.createTempDirectory("java-ngrok");
+        final List<Path> configPaths = List.of(configDir.resolve("ngrok1.yml"), configDir.resolve("ngrok2.yml"), configDir.resolve("ngrok3.yml"));
+        ngrokInstaller.installDefaultConfig(configPaths.get(0), Map.of("region", "eu"), NgrokVersion.V3);
+
+        // WHEN
+        ngrokInstaller.setAuthToken(configPaths, "807ad30a-73be-48d8", NgrokVersion.V3);
+
+        // THEN
+        for (final Path configPath : configPaths) {
+            assertEquals("807ad30a-73be-48d8", ngrokInstaller.getNgrokConfig(configPath).get("authtoken"));
+            assertEquals("807ad30a-73be-48d8", ngrokInstaller.getNgrokConfig(configPath, false).get("authtoken"));
+        }
+        assertEquals("eu", ngrokInstaller.getNgrokConfig(configPaths.get(0), false).get("region"));
+    }
+
+    @Test
+    public void testSetAuthTokenSymlinkedConfig() throws IOException {
+        assumeFalse(NgrokInstaller.getSystem().equals(WINDOWS));
+
+        // GIVEN
+        final Path configDir = Files.createTempDirectory("java-ngrok");
+        final Path realConfigPath = configDir.resolve("real-ngrok.yml");
+        final Path configPath = configDir.resolve("ngrok.yml");
+        ngrokInstaller.installDefaultConfig(realConfigPath, Map.of("region", "eu"), NgrokVersion.V3);
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-------");
+        Files.setPosixFilePermissions(realConfigPath, permissions);
+        Files.createSymbolicLink(configPath, realConfigPath);
+
+        // WHEN
+        ngrokInstaller.setAuthToken(configPath, "807ad30a-73be-48d8", NgrokVersion.V3);
+
+        // THEN
+        assertTrue(Files.isSymbolicLink(configPath));
+        assertEquals(permissions, Files.getPosixFilePermissions(realConfigPath));
+        assertEquals("807ad30a-73be-48d8", ngrokInstaller.getNgrokConfig(realConfigPath, false).get("authtoken"));
+    }
+
     @Test
     public void testInstallToDirectoryFailsPermissions() {
         assumeFalse(NgrokInstaller.getSystem().equals(WINDOWS));
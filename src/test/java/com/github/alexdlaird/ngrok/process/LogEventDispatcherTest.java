@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.LogEventOverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogEventDispatcherTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    public void testDispatchInline() {
+        // GIVEN
+        final LogEventDispatcher logEventDispatcher = new LogEventDispatcher(new JavaNgrokConfig.Builder()
+                .withLogEventCallback(ngrokLog -> {
+                    delivered.add(ngrokLog.getMsg());
+                    return null;
+                })
+                .build());
+
+        // WHEN
+        logEventDispatcher.dispatch(new NgrokLog("msg=1"));
+
+        // THEN
+        assertEquals(List.of("1"), delivered);
+    }
+
+    @Test
+    public void testDispatchDropNewest() throws InterruptedException {
+        // GIVEN
+        final LogEventDispatcher logEventDispatcher = givenBlockedDispatcher(LogEventOverflowPolicy.DROP_NEWEST);
+
+        // WHEN
+        dispatch(logEventDispatcher, 2, 5);
+        release.countDown();
+
+        // THEN
+        awaitDelivered(3);
+        assertEquals(List.of("1", "2", "3"), delivered);
+        assertEquals(2, logEventDispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testDispatchDropOldest() throws InterruptedException {
+        // GIVEN
+        final LogEventDispatcher logEventDispatcher = givenBlockedDispatcher(LogEventOverflowPolicy.DROP_OLDEST);
+
+        // WHEN
+        dispatch(logEventDispatcher, 2, 5);
+        release.countDown();
+
+        // THEN
+        awaitDelivered(3);
+        assertEquals(List.of("1", "4", "5"), delivered);
+        assertEquals(2, logEventDispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testDispatchSample() throws InterruptedException {
+        // GIVEN
+        final LogEventDispatcher logEventDispatcher = givenBlockedDispatcher(LogEventOverflowPolicy.SAMPLE);
+
+        // WHEN
+        dispatch(logEventDispatcher, 2, 6);
+        release.countDown();
+
+        // THEN
+        awaitDelivered(3);
+        assertEquals(List.of("1", "4", "6"), delivered);
+        assertEquals(3, logEventDispatcher.getDroppedEvents());
+    }
+
+    @Test
+    public void testDispatchBlock() throws InterruptedException {
+        // GIVEN
+        final LogEventDispatcher logEventDispatcher = givenBlockedDispatcher(LogEventOverflowPolicy.BLOCK);
+        dispatch(logEventDispatcher, 2, 3);
+        final Thread producer = new Thread(() -> logEventDispatcher.dispatch(new NgrokLog("msg=4")));
+
+        // WHEN
+        producer.start();
+        producer.join(500);
+
+        // THEN
+        assertTrue(producer.isAlive());
+
+        // WHEN
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+
+        // THEN
+        assertFalse(producer.isAlive());
+        awaitDelivered(4);
+        assertEquals(List.of("1", "2", "3", "4"), delivered);
+        assertEquals(0, logEventDispatcher.getDroppedEvents());
+    }
+
+    private LogEventDispatcher givenBlockedDispatcher(final LogEventOverflowPolicy logEventOverflowPolicy) throws InterruptedException {
+        final LogEventDispatcher logEventDispatcher = new LogEventDispatcher(new JavaNgrokConfig.Builder()
+                .withLogEventCallback(ngrokLog -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    delivered.add(ngrokLog.getMsg());
+                    return null;
+                })
+                .withLogEventQueueSize(2)
+                .withLogEventOverflowPolicy(logEventOverflowPolicy)
+                .withLogEventSampleRate(2)
+                .build());
+
+        // The first event is taken off the queue and holds up the callback, so the queue then fills
+        logEventDispatcher.dispatch(new NgrokLog("msg=1"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        return logEventDispatcher;
+    }
+
+    private void dispatch(final LogEventDispatcher logEventDispatcher,
+                          final int from,
+                          final int to) {
+        for (int i = from; i <= to; ++i) {
+            logEventDispatcher.dispatch(new NgrokLog(String.format("msg=%s", i)));
+        }
+    }
+
+    private void awaitDelivered(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (delivered.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
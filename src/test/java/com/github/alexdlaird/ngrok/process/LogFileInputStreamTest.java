@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LogFileInputStreamTest {
+    @Test
+    public void testFollowAndTruncate() throws IOException {
+        // GIVEN
+        final Path logPath = Files.createTempDirectory("java-ngrok").resolve("ngrok.yml.log");
+        Files.writeString(logPath, "lvl=INFO msg=one\n");
+        final AtomicBoolean keepReading = new AtomicBoolean(true);
+        final byte[] buffer = new byte[64];
+
+        try (final LogFileInputStream inputStream = new LogFileInputStream(logPath, 10, keepReading::get)) {
+            // WHEN
+            final int read = inputStream.read(buffer, 0, buffer.length);
+
+            // THEN
+            assertEquals("lvl=INFO msg=one\n", new String(buffer, 0, read, StandardCharsets.UTF_8));
+
+            // WHEN
+            final Thread appender = new Thread(() -> {
+                try {
+                    // Wait for the file to be truncated before appending to it
+                    while (Files.size(logPath) > 0) {
+                        Thread.sleep(10);
+                    }
+                    Files.writeString(logPath, "lvl=INFO msg=two\n", StandardOpenOption.APPEND);
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            appender.start();
+            final int nextRead = inputStream.read(buffer, 0, buffer.length);
+
+            // THEN
+            assertEquals("lvl=INFO msg=two\n", new String(buffer, 0, nextRead, StandardCharsets.UTF_8));
+
+            // WHEN
+            keepReading.set(false);
+
+            // THEN
+            assertEquals(-1, inputStream.read(buffer, 0, buffer.length));
+        }
+    }
+
+    @Test
+    public void testFollowTruncatedByOtherHolder() throws IOException {
+        // GIVEN
+        final Path logPath = Files.createTempDirectory("java-ngrok").resolve("ngrok.yml.log");
+        Files.writeString(logPath, "lvl=INFO msg=one\n");
+        final byte[] buffer = new byte[64];
+
+        try (final LogFileInputStream inputStream = new LogFileInputStream(logPath, 1024, () -> true)) {
+            assertEquals(17, inputStream.read(buffer, 0, buffer.length));
+
+            // WHEN
+            Files.writeString(logPath, "lvl=INFO msg=2\n", StandardOpenOption.TRUNCATE_EXISTING);
+            final int read = inputStream.read(buffer, 0, buffer.length);
+
+            // THEN
+            assertEquals("lvl=INFO msg=2\n", new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -25,8 +25,14 @@ package com.github.alexdlaird.ngrok.process;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NgrokLogTest {
     @Test
@@ -108,4 +114,108 @@ public class NgrokLogTest {
         // THEN
         assertEquals("123456789", ngrokLog.getT());
     }
+
+    @Test
+    public void testNgrokLogQuotingAndEscaping() {
+        // WHEN
+        final NgrokLog ngrokLog = new NgrokLog("lvl=info msg=\"started tunnel\" name='my \\tunnel' path=a\\ b\\=c empty=\"\" \"\" flag");
+
+        // THEN
+        assertEquals("INFO", ngrokLog.getLvl());
+        assertEquals("started tunnel", ngrokLog.getMsg());
+        assertEquals("my \\tunnel", ngrokLog.get("name"));
+        assertEquals("a b=c", ngrokLog.get("path"));
+        assertEquals("", ngrokLog.get("empty"));
+        assertEquals("", ngrokLog.get(""));
+        assertEquals("", ngrokLog.get("flag"));
+        assertEquals(7, ngrokLog.size());
+    }
+
+    @Test
+    public void testNgrokLogLazy() {
+        // GIVEN
+        final String line = "t=123456789 lvl=eror msg=\"Test=This is Tom's test\" err=\"some \\\"error\\\"\" name='my tunnel'";
+
+        // WHEN
+        final NgrokLog ngrokLog = new NgrokLog(line, true);
+
+        // THEN
+        assertEquals("SEVERE", ngrokLog.getLvl());
+        assertEquals("Test=This is Tom's test", ngrokLog.getMsg());
+        assertEquals("some \"error\"", ngrokLog.getErr());
+        assertEquals("my tunnel", ngrokLog.get("name"));
+        assertTrue(ngrokLog.containsKey("t"));
+        assertFalse(ngrokLog.containsKey("addr"));
+        assertNull(ngrokLog.getAddr());
+        assertEquals("default", ngrokLog.getOrDefault("url", "default"));
+        assertEquals(new NgrokLog(line), ngrokLog);
+        assertEquals(5, ngrokLog.size());
+        assertEquals("123456789", ngrokLog.getT());
+    }
+
+    @Test
+    public void testNgrokLogLazyConcurrentReads() throws InterruptedException {
+        // GIVEN
+        final String line = "t=123456789 lvl=warn msg=\"Test=This is Tom's test\" addr=127.0.0.1:4040";
+        final AtomicInteger mismatches = new AtomicInteger();
+
+        for (int i = 0; i < 1000; ++i) {
+            final NgrokLog ngrokLog = new NgrokLog(line, true);
+            final CountDownLatch ready = new CountDownLatch(1);
+            final Thread materializer = new Thread(() -> {
+                awaitQuietly(ready);
+                if (ngrokLog.size() != 4) {
+                    mismatches.incrementAndGet();
+                }
+            });
+            materializer.start();
+
+            // WHEN
+            ready.countDown();
+            for (int j = 0; j < 3; ++j) {
+                if (!"WARNING".equals(ngrokLog.getLvl()) || !"Test=This is Tom's test".equals(ngrokLog.getMsg())
+                        || !"127.0.0.1:4040".equals(ngrokLog.get("addr"))) {
+                    mismatches.incrementAndGet();
+                }
+            }
+            materializer.join();
+        }
+
+        // THEN
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    public void testScanLvl() {
+        // THEN
+        assertEquals(Level.INFO, NgrokLog.scanLvl("t=123456789 lvl=info msg=\"lvl=eror in a msg\""));
+        assertEquals(Level.WARNING, NgrokLog.scanLvl("lvl=WARN msg=\"Test\""));
+        assertEquals(Level.SEVERE, NgrokLog.scanLvl("t=123456789 lvl=eror err=\"Test\""));
+        assertEquals(Level.SEVERE, NgrokLog.scanLvl("lvl=crit"));
+        assertEquals(Level.FINE, NgrokLog.scanLvl("t=123456789 xlvl=warn lvl=dbug msg=\"Test\""));
+        assertEquals(Level.FINE, NgrokLog.scanLvl("lvl=debug msg=\"Test\""));
+        assertEquals(Level.INFO, NgrokLog.scanLvl("t=123456789 msg=\"Test\""));
+        assertNull(NgrokLog.scanLvl("lvl=\"info\" msg=\"Test\""));
+        assertNull(NgrokLog.scanLvl("lvl=trace msg=\"Test\""));
+    }
+
+    @Test
+    public void testScanLvlQuoted() {
+        // THEN
+        assertEquals(Level.SEVERE, NgrokLog.scanLvl("t=123456789 msg=\"retry lvl=dbug\" lvl=eror"));
+        assertEquals(Level.SEVERE, NgrokLog.scanLvl("msg=\"retry \\\" lvl=dbug\" lvl=eror"));
+        assertEquals(Level.INFO, NgrokLog.scanLvl("msg=\"retry lvl=dbug\""));
+        assertEquals(Level.INFO, NgrokLog.scanLvl("msg=retry\\ lvl=dbug"));
+        assertEquals(Level.WARNING, NgrokLog.scanLvl("lvl=info lvl=warn"));
+        assertEquals(Level.WARNING, NgrokLog.scanLvl("lvl=warn lvl= msg=Test"));
+        assertNull(NgrokLog.scanLvl("\"lvl\"=eror msg=Test"));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
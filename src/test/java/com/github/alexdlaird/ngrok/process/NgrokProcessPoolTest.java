@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.exception.JavaNgrokException;
+import com.github.alexdlaird.ngrok.NgrokTestCase;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NgrokProcessPoolTest extends NgrokTestCase {
+
+    @Test
+    public void testLeaseAndRelease() throws InterruptedException {
+        // GIVEN
+        final NgrokProcessPool ngrokProcessPool = new NgrokProcessPool.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withMinIdle(1)
+                .withMaxSize(2)
+                .build();
+
+        try {
+            // WHEN
+            final NgrokProcess ngrokProcess1 = ngrokProcessPool.lease();
+            final NgrokProcess ngrokProcess2 = ngrokProcessPool.lease();
+
+            // THEN
+            assertTrue(ngrokProcess1.isRunning());
+            assertTrue(ngrokProcess2.isRunning());
+            assertNotNull(ngrokProcess1.getApiUrl());
+            assertNotEquals(ngrokProcess1.getApiUrl(), ngrokProcess2.getApiUrl());
+            assertNotEquals(javaNgrokConfigV3.getConfigPath(), ngrokProcess1.getJavaNgrokConfig().getConfigPath());
+            assertEquals(2, ngrokProcessPool.getSize());
+            assertThrows(JavaNgrokException.class, ngrokProcessPool::lease);
+
+            // WHEN
+            ngrokProcessPool.release(ngrokProcess1);
+
+            // THEN
+            assertFalse(ngrokProcess1.isRunning());
+            final long timeoutTime = System.currentTimeMillis() + 15 * 1000;
+            while (ngrokProcessPool.getIdleCount() == 0 && System.currentTimeMillis() < timeoutTime) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, ngrokProcessPool.getIdleCount());
+            assertEquals(2, ngrokProcessPool.getSize());
+
+            ngrokProcessPool.release(ngrokProcess2);
+            assertThrows(IllegalArgumentException.class, () -> ngrokProcessPool.release(ngrokProcess2));
+        } finally {
+            ngrokProcessPool.close();
+        }
+    }
+
+    @Test
+    public void testLeaseWithWebAddrAndDrainPath() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withWebAddr("127.0.0.1:4041")
+                .withDrainPath(Paths.get("ngrok-drain.log"))
+                .build();
+        final NgrokProcessPool ngrokProcessPool = new NgrokProcessPool.Builder()
+                .withJavaNgrokConfig(javaNgrokConfig)
+                .withNgrokInstaller(ngrokInstaller)
+                .withMinIdle(0)
+                .build();
+
+        try {
+            // WHEN
+            final NgrokProcess ngrokProcess1 = ngrokProcessPool.lease();
+            final NgrokProcess ngrokProcess2 = ngrokProcessPool.lease();
+
+            // THEN
+            assertTrue(ngrokProcess1.isRunning());
+            assertTrue(ngrokProcess2.isRunning());
+            assertNotEquals(ngrokProcess1.getApiUrl(), ngrokProcess2.getApiUrl());
+            assertNotEquals("127.0.0.1:4041", ngrokProcess1.getJavaNgrokConfig().getWebAddr());
+            assertNotEquals(ngrokProcess1.getJavaNgrokConfig().getDrainPath(), ngrokProcess2.getJavaNgrokConfig().getDrainPath());
+            assertThat(ngrokProcess1.getJavaNgrokConfig().getDrainPath().getFileName().toString(), startsWith("ngrok-drain-pool-"));
+
+            // WHEN
+            ngrokProcessPool.release(ngrokProcess1);
+            ngrokProcessPool.release(ngrokProcess2);
+
+            // THEN
+            assertFalse(Files.exists(ngrokProcess1.getJavaNgrokConfig().getDrainPath()));
+            assertFalse(Files.exists(ngrokProcess2.getJavaNgrokConfig().getDrainPath()));
+        } finally {
+            ngrokProcessPool.close();
+        }
+    }
+
+    @Test
+    public void testReleaseAfterClose() {
+        // GIVEN
+        final NgrokProcessPool ngrokProcessPool = new NgrokProcessPool.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withMinIdle(0)
+                .build();
+        final NgrokProcess ngrokProcess = ngrokProcessPool.lease();
+
+        // WHEN
+        ngrokProcessPool.close();
+        ngrokProcessPool.release(ngrokProcess);
+
+        // THEN
+        assertFalse(ngrokProcess.isRunning());
+        assertEquals(0, ngrokProcessPool.getSize());
+    }
+
+    @Test
+    public void testReleaseNotLeased() {
+        // GIVEN
+        final NgrokProcessPool ngrokProcessPool = new NgrokProcessPool.Builder()
+                .withJavaNgrokConfig(javaNgrokConfigV3)
+                .withNgrokInstaller(ngrokInstaller)
+                .withMinIdle(0)
+                .build();
+
+        try {
+            // WHEN
+            assertThrows(IllegalArgumentException.class, () -> ngrokProcessPool.release(ngrokProcessV3));
+        } finally {
+            ngrokProcessPool.close();
+        }
+    }
+
+    @Test
+    public void testInvalidSizing() {
+        // WHEN
+        assertThrows(IllegalArgumentException.class, () -> new NgrokProcessPool.Builder().withMaxSize(0));
+        assertThrows(IllegalArgumentException.class, () -> new NgrokProcessPool.Builder().withIdleTimeout(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new NgrokProcessPool.Builder()
+                .withMinIdle(3)
+                .withMaxSize(2)
+                .build());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.NgrokTestCase;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.protocol.Tunnel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NgrokProcessRegistryTest extends NgrokTestCase {
+    @Test
+    public void testAcquireRelease() {
+        // GIVEN
+        final NgrokProcessRegistry ngrokProcessRegistry = new NgrokProcessRegistry();
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3).build();
+
+        // WHEN
+        final NgrokProcess ngrokProcess1 = ngrokProcessRegistry.acquire(javaNgrokConfigV3, ngrokInstaller);
+        final NgrokProcess ngrokProcess2 = ngrokProcessRegistry.acquire(javaNgrokConfig2, ngrokInstaller);
+        ngrokProcessRegistry.getTunnelRegistry(ngrokProcess1).getCurrentTunnels().put("https://example.ngrok.io", new Tunnel());
+
+        // THEN
+        assertSame(ngrokProcess1, ngrokProcess2);
+        assertSame(ngrokProcessRegistry.getTunnelRegistry(ngrokProcess1), ngrokProcessRegistry.getTunnelRegistry(ngrokProcess2));
+        assertEquals(2, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+
+        // WHEN
+        ngrokProcessRegistry.release(ngrokProcess1);
+
+        // THEN
+        assertEquals(1, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+        assertEquals(1, ngrokProcessRegistry.getTunnelRegistry(ngrokProcess2).getCurrentTunnels().size());
+
+        // WHEN
+        ngrokProcessRegistry.release(ngrokProcess2);
+
+        // THEN
+        assertEquals(0, ngrokProcessRegistry.getReferenceCount(javaNgrokConfigV3.getConfigPath()));
+        assertThrows(IllegalArgumentException.class, () -> ngrokProcessRegistry.release(ngrokProcess2));
+
+        // WHEN
+        final NgrokProcess ngrokProcess3 = ngrokProcessRegistry.acquire(javaNgrokConfigV3, ngrokInstaller);
+
+        // THEN
+        assertNotSame(ngrokProcess1, ngrokProcess3);
+        assertTrue(ngrokProcessRegistry.getTunnelRegistry(ngrokProcess3).getCurrentTunnels().isEmpty());
+    }
+}
@@ -24,8 +24,12 @@
 package com.github.alexdlaird.ngrok.process;
 
 import com.github.alexdlaird.exception.NgrokException;
+import com.github.alexdlaird.http.DefaultHttpClient;
+import com.github.alexdlaird.http.HttpClient;
+import com.github.alexdlaird.http.HttpClientException;
 import com.github.alexdlaird.ngrok.NgrokTestCase;
 import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import com.github.alexdlaird.ngrok.conf.Readiness;
 import com.github.alexdlaird.ngrok.installer.NgrokInstaller;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -34,20 +38,30 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 import static com.github.alexdlaird.ngrok.installer.NgrokInstaller.WINDOWS;
 import static java.util.Objects.isNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class NgrokProcessTest extends NgrokTestCase {
 
@@ -63,6 +77,348 @@ public class NgrokProcessTest extends NgrokTestCase {
         assertTrue(ngrokProcessV2.isRunning());
     }
 
+    @Test
+    public void testStartCompletesStartupFuture() {
+        // WHEN
+        ngrokProcessV3.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3.isRunning());
+        assertTrue(ngrokProcessV3.getProcessMonitor().getStartupFuture().isDone());
+        assertFalse(ngrokProcessV3.getProcessMonitor().getStartupFuture().isCompletedExceptionally());
+    }
+
+    @Test
+    public void testStartupTimings() {
+        // GIVEN
+        final Function<StartupTimings, Void> startupTimingsCallbackMock = mock(Function.class);
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withStartupTimingsCallback(startupTimingsCallbackMock)
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        final StartupTimings startupTimings = ngrokProcessV3_2.getProcessMonitor().getStartupTimings();
+        assertTrue(startupTimings.isStarted());
+        for (final StartupTimings.Phase phase : StartupTimings.Phase.values()) {
+            assertNotNull(startupTimings.getElapsed(phase));
+        }
+        assertEquals(startupTimings.getElapsed(StartupTimings.Phase.HEALTH_CONFIRMED), startupTimings.getTotal());
+        verify(startupTimingsCallbackMock).apply(startupTimings);
+    }
+
+    @Test
+    public void testStartupTimingsCallbackErrorDoesNotFailStart() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withStartupTimingsCallback(startupTimings -> {
+                    throw new IllegalStateException("Metrics are down.");
+                })
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertNotNull(ngrokProcessV3_2.getApiUrl());
+    }
+
+    @Test
+    public void testStartWithFreeWebAddr() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withWebAddr("127.0.0.1:0")
+                .build();
+        ngrokProcessV3 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3.start();
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3.isRunning());
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertThat(ngrokProcessV3.getApiUrl(), startsWith("http://127.0.0.1:"));
+        assertNotEquals(ngrokProcessV3.getApiUrl(), ngrokProcessV3_2.getApiUrl());
+    }
+
+    @Test
+    public void testStartWithApiReadiness() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withReadiness(Readiness.API)
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertNotNull(ngrokProcessV3_2.getApiUrl());
+
+        // WHEN
+        ngrokProcessV3_2.awaitSession();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.getProcessMonitor().isSessionEstablished());
+        assertTrue(ngrokProcessV3_2.getProcessMonitor().getSessionFuture().isDone());
+    }
+
+    @Test
+    public void testStartWithWebAddrAndApiReadiness() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withWebAddr("127.0.0.1:0")
+                .withReadiness(Readiness.API)
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertThat(ngrokProcessV3_2.getApiUrl(), startsWith("http://127.0.0.1:"));
+        assertNotNull(ngrokProcessV3_2.getProcessMonitor().getStartupTimings().getElapsed(StartupTimings.Phase.WEB_SERVICE_STARTED));
+    }
+
+    @Test
+    public void testWebAddrConfigDeletedWhenNgrokExits() throws ExecutionException, InterruptedException {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withWebAddr("127.0.0.1:0")
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+        ngrokProcessV3_2.start();
+        final Path webAddrConfigPath = ngrokProcessV3_2.getWebAddrConfigPath();
+        final CompletableFuture<Void> onExit = ngrokProcessV3_2.onExit();
+        assertTrue(Files.exists(webAddrConfigPath));
+
+        // WHEN
+        ProcessHandle.current().children()
+                .filter(processHandle -> processHandle.info().arguments()
+                        .map(arguments -> List.of(arguments).contains(String.format("--config=%s", webAddrConfigPath)))
+                        .orElse(false))
+                .forEach(ProcessHandle::destroy);
+        onExit.get();
+
+        // THEN
+        assertFalse(Files.exists(webAddrConfigPath));
+    }
+
+    @Test
+    public void testStartWithMultiplexedOutput() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withMultiplexedOutput()
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertNotNull(ngrokProcessV3_2.getApiUrl());
+        assertTrue(ngrokProcessV3_2.getProcessMonitor().isMonitoring());
+        assertTrue(ngrokProcessV3_2.getProcessMonitor().getLogs().size() > 0);
+
+        // WHEN
+        ngrokProcessV3_2.stop();
+
+        // THEN
+        assertFalse(ngrokProcessV3_2.isRunning());
+        assertFalse(ngrokProcessV3_2.getProcessMonitor().isMonitoring());
+    }
+
+    @Test
+    public void testStartAsync() {
+        // GIVEN
+        assertFalse(ngrokProcessV3.isRunning());
+
+        // WHEN
+        final CompletableFuture<Void> startFuture = ngrokProcessV3.startAsync();
+        startFuture.join();
+
+        // THEN
+        assertTrue(ngrokProcessV3.isRunning());
+        assertNotNull(ngrokProcessV3.getApiUrl());
+        assertSame(startFuture, ngrokProcessV3.startAsync());
+    }
+
+    @Test
+    public void testStartAsyncNoBinary() throws IOException, InterruptedException {
+        // Due to Windows file locking behavior, wait a beat
+        if (NgrokInstaller.getSystem().equals(WINDOWS)) {
+            Thread.sleep(1000);
+        }
+
+        // GIVEN
+        if (Files.exists(javaNgrokConfigV3.getNgrokPath())) {
+            Files.delete(javaNgrokConfigV3.getNgrokPath());
+        }
+
+        // WHEN
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> ngrokProcessV3.startAsync().get());
+
+        // THEN
+        assertThat(exception.getCause(), instanceOf(NgrokException.class));
+        assertThat(exception.getCause().getMessage(), containsString("ngrok binary was not found"));
+        assertFalse(ngrokProcessV3.isRunning());
+    }
+
+    @Test
+    public void testAttachToRunningProcess() {
+        // GIVEN
+        ngrokProcessV3.start();
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withApiUrl(ngrokProcessV3.getApiUrl())
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertEquals(ngrokProcessV3.getApiUrl(), ngrokProcessV3_2.getApiUrl());
+        assertNull(ngrokProcessV3_2.getProcessMonitor());
+
+        // WHEN
+        ngrokProcessV3_2.stop();
+
+        // THEN
+        assertFalse(ngrokProcessV3_2.isRunning());
+        assertTrue(ngrokProcessV3.isRunning());
+    }
+
+    @Test
+    public void testAttachToNoProcess() {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withApiUrl("http://127.0.0.1:1")
+                .build();
+        ngrokProcessV3_2 = new NgrokProcess(javaNgrokConfig2, ngrokInstaller);
+
+        // WHEN
+        final NgrokException exception = assertThrows(NgrokException.class, ngrokProcessV3_2::start);
+
+        // THEN
+        assertThat(exception.getMessage(), containsString("Unable to attach to the ngrok process"));
+        assertFalse(ngrokProcessV3_2.isRunning());
+    }
+
+    @Test
+    public void testSharedProcess() {
+        // GIVEN
+        final JavaNgrokConfig sharedJavaNgrokConfig = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withSharedProcess()
+                .build();
+        ngrokProcessV3 = new NgrokProcess(sharedJavaNgrokConfig, ngrokInstaller);
+        ngrokProcessV3_2 = new NgrokProcess(sharedJavaNgrokConfig, ngrokInstaller);
+
+        // WHEN
+        ngrokProcessV3.start();
+        ngrokProcessV3_2.start();
+
+        // THEN
+        assertTrue(ngrokProcessV3_2.isRunning());
+        assertEquals(ngrokProcessV3.getApiUrl(), ngrokProcessV3_2.getApiUrl());
+        assertNull(ngrokProcessV3_2.getProcessMonitor());
+        final String apiUrl = ngrokProcessV3.getApiUrl();
+        final HttpClient httpClient = new DefaultHttpClient.Builder().build();
+
+        // WHEN
+        ngrokProcessV3.stop();
+
+        // THEN
+        assertFalse(ngrokProcessV3.isRunning());
+        assertEquals(200, httpClient.get(apiUrl + "/api/tunnels", Map.class).getStatusCode());
+
+        // WHEN
+        ngrokProcessV3_2.stop();
+
+        // THEN
+        assertFalse(ngrokProcessV3_2.isRunning());
+        assertThrows(HttpClientException.class, () -> httpClient.get(apiUrl + "/api/tunnels", Map.class));
+        assertFalse(Files.exists(Paths.get(sharedJavaNgrokConfig.getConfigPath() + ".share")));
+    }
+
+    @Test
+    public void testSharedProcessReusedPidNotKilled() throws IOException, InterruptedException {
+        // GIVEN
+        final JavaNgrokConfig sharedJavaNgrokConfig = new JavaNgrokConfig.Builder(javaNgrokConfigV3)
+                .withSharedProcess()
+                .build();
+        ngrokProcessV3 = new NgrokProcess(sharedJavaNgrokConfig, ngrokInstaller);
+        ngrokProcessV3.start();
+        final SharedProcessFile sharedProcessFile = new SharedProcessFile(sharedJavaNgrokConfig.getConfigPath());
+        final SharedProcessFile.State state = sharedProcessFile.read();
+        final Process otherProcess = new ProcessBuilder("sleep", "60").start();
+        try {
+            sharedProcessFile.write(new SharedProcessFile.State(otherProcess.pid(), "http://localhost:1", state.holders));
+
+            // WHEN
+            ngrokProcessV3.stop();
+
+            // THEN
+            assertFalse(ngrokProcessV3.isRunning());
+            assertTrue(otherProcess.isAlive());
+            assertFalse(Files.exists(Paths.get(sharedJavaNgrokConfig.getConfigPath() + ".share")));
+        } finally {
+            otherProcess.destroyForcibly().waitFor();
+        }
+    }
+
+    @Test
+    public void testStopAsync() throws ExecutionException, InterruptedException {
+        // GIVEN
+        ngrokProcessV3.start();
+        final String apiUrl = ngrokProcessV3.getApiUrl();
+        final HttpClient httpClient = new DefaultHttpClient.Builder().build();
+
+        // WHEN
+        ngrokProcessV3.stopAsync(Duration.ofSeconds(5)).get();
+
+        // THEN
+        assertFalse(ngrokProcessV3.isRunning());
+        assertThrows(HttpClientException.class, () -> httpClient.get(apiUrl + "/api/tunnels", Map.class));
+    }
+
+    @Test
+    public void testStopAsyncNotRunning() {
+        // WHEN
+        final CompletableFuture<Void> stopFuture = ngrokProcessV3.stopAsync(Duration.ofSeconds(5));
+
+        // THEN
+        assertTrue(stopFuture.isDone());
+        assertFalse(ngrokProcessV3.isRunning());
+    }
+
+    @Test
+    public void testStartRegistersShutdownHook() {
+        // WHEN
+        ngrokProcessV3.start();
+
+        // THEN
+        assertTrue(ProcessShutdownHook.isRegistered(ngrokProcessV3));
+        assertFalse(ngrokProcessV3.isStopping());
+
+        // WHEN
+        ngrokProcessV3.stop();
+
+        // THEN
+        assertFalse(ProcessShutdownHook.isRegistered(ngrokProcessV3));
+        assertTrue(ngrokProcessV3.isStopping());
+    }
+
     @Test
     public void testStop() {
         // GIVEN
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import com.github.alexdlaird.ngrok.conf.DrainPolicy;
+import com.github.alexdlaird.ngrok.conf.JavaNgrokConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutputDrainTest {
+    @Test
+    public void testDrainCount() throws IOException {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withoutMonitoring()
+                .withDrainPolicy(DrainPolicy.COUNT)
+                .build();
+        final OutputDrain outputDrain = new OutputDrain(javaNgrokConfig);
+
+        // WHEN
+        outputDrain.drain(new StringReader("lvl=INFO msg=one\nlvl=INFO msg=two\nlvl=INFO msg=three\n"), () -> true);
+
+        // THEN
+        assertEquals(3, outputDrain.getDrainedLines());
+    }
+
+    @Test
+    public void testDrainDiscard() throws IOException {
+        // GIVEN
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withoutMonitoring()
+                .build();
+        final OutputDrain outputDrain = new OutputDrain(javaNgrokConfig);
+        final StringReader reader = new StringReader("lvl=INFO msg=one\n");
+
+        // WHEN
+        outputDrain.drain(reader, () -> true);
+
+        // THEN
+        assertEquals(DrainPolicy.DISCARD, javaNgrokConfig.getDrainPolicy());
+        assertEquals(-1, reader.read());
+        assertEquals(0, outputDrain.getDrainedLines());
+    }
+
+    @Test
+    public void testDrainRotatingFile() throws IOException {
+        // GIVEN
+        final Path tempDir = Files.createTempDirectory("java-ngrok");
+        final Path drainPath = tempDir.resolve("ngrok.log");
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withoutMonitoring()
+                .withDrainPolicy(DrainPolicy.ROTATING_FILE)
+                .withDrainPath(drainPath)
+                .withDrainMaxFileSize(10)
+                .build();
+        final OutputDrain outputDrain = new OutputDrain(javaNgrokConfig);
+
+        // WHEN
+        outputDrain.drain(new StringReader("first line\n"), () -> true);
+        outputDrain.drain(new StringReader("second line\n"), () -> true);
+
+        // THEN
+        assertEquals("second line\n", Files.readString(drainPath, StandardCharsets.UTF_8));
+        assertTrue(Files.exists(Paths.get(drainPath + ".1")));
+        assertEquals("first line\n", Files.readString(Paths.get(drainPath + ".1"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDrainLine() throws IOException {
+        // GIVEN
+        final Path tempDir = Files.createTempDirectory("java-ngrok");
+        final Path drainPath = tempDir.resolve("ngrok.log");
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withoutMonitoring()
+                .withDrainPolicy(DrainPolicy.ROTATING_FILE)
+                .withDrainPath(drainPath)
+                .build();
+        final OutputDrain outputDrain = new OutputDrain(javaNgrokConfig);
+
+        // WHEN
+        outputDrain.drainLine("lvl=INFO msg=one");
+        outputDrain.drainLine("lvl=INFO msg=two");
+        outputDrain.close();
+
+        // THEN
+        assertEquals("lvl=INFO msg=one\nlvl=INFO msg=two\n", Files.readString(drainPath, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDrainDefaultPathFollowsConfigPath() throws IOException {
+        // GIVEN
+        final Path tempDir = Files.createTempDirectory("java-ngrok");
+        final JavaNgrokConfig javaNgrokConfig = new JavaNgrokConfig.Builder()
+                .withoutMonitoring()
+                .withDrainPolicy(DrainPolicy.ROTATING_FILE)
+                .build();
+        final JavaNgrokConfig javaNgrokConfig2 = new JavaNgrokConfig.Builder(javaNgrokConfig)
+                .withConfigPath(tempDir.resolve("ngrok.yml"))
+                .build();
+        final OutputDrain outputDrain = new OutputDrain(javaNgrokConfig2);
+
+        // WHEN
+        outputDrain.drainLine("lvl=INFO msg=one");
+        outputDrain.close();
+
+        // THEN
+        assertNull(javaNgrokConfig2.getDrainPath());
+        assertEquals("lvl=INFO msg=one\n", Files.readString(tempDir.resolve("ngrok.log"), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutputMultiplexerTest {
+    @Test
+    public void testRegister() throws InterruptedException {
+        // GIVEN
+        final OutputMultiplexer outputMultiplexer = new OutputMultiplexer(1, Thread::new);
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ngrok-handler"));
+        final CountDownLatch ended = new CountDownLatch(10);
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        final List<List<String>> lines = new CopyOnWriteArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 10; ++i) {
+            final List<String> sourceLines = new CopyOnWriteArrayList<>();
+            lines.add(sourceLines);
+
+            final String output = String.format("lvl=INFO msg=one i=%s\r\nlvl=INFO msg=two i=%s\nlvl=INFO msg=three", i, i);
+            outputMultiplexer.register(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), () -> false, executor,
+                    new OutputMultiplexer.LineHandler() {
+                        @Override
+                        public boolean onLine(final String line) {
+                            threadNames.add(Thread.currentThread().getName());
+                            sourceLines.add(line);
+                            return true;
+                        }
+
+                        @Override
+                        public void onEnd(final IOException e) {
+                            ended.countDown();
+                        }
+                    });
+        }
+
+        // THEN
+        assertTrue(ended.await(10, TimeUnit.SECONDS));
+        assertEquals(Set.of("ngrok-handler"), threadNames);
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(List.of(String.format("lvl=INFO msg=one i=%s", i),
+                    String.format("lvl=INFO msg=two i=%s", i),
+                    "lvl=INFO msg=three"), lines.get(i));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRegisterStopReading() throws InterruptedException {
+        // GIVEN
+        final OutputMultiplexer outputMultiplexer = new OutputMultiplexer(1, Thread::new);
+        final CountDownLatch ended = new CountDownLatch(1);
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final byte[] output = "lvl=INFO msg=one\nlvl=INFO msg=two\nlvl=INFO msg=three\n".getBytes(StandardCharsets.UTF_8);
+
+        // WHEN
+        outputMultiplexer.register(new ByteArrayInputStream(output), () -> true, Runnable::run,
+                new OutputMultiplexer.LineHandler() {
+                    @Override
+                    public boolean onLine(final String line) {
+                        lines.add(line);
+                        return lines.size() < 2;
+                    }
+
+                    @Override
+                    public void onEnd(final IOException e) {
+                        ended.countDown();
+                    }
+                });
+
+        // THEN
+        assertTrue(ended.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("lvl=INFO msg=one", "lvl=INFO msg=two"), lines);
+        assertEquals(0, outputMultiplexer.getSourceCount());
+    }
+
+    @Test
+    public void testRegisterSlowHandlerDoesNotStallOtherSources() throws InterruptedException {
+        // GIVEN
+        final OutputMultiplexer outputMultiplexer = new OutputMultiplexer(1, Thread::new);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch fastEnded = new CountDownLatch(1);
+        final byte[] output = "lvl=INFO msg=one\nlvl=INFO msg=two\n".getBytes(StandardCharsets.UTF_8);
+
+        // WHEN
+        outputMultiplexer.register(new ByteArrayInputStream(output), () -> false, executor,
+                new OutputMultiplexer.LineHandler() {
+                    @Override
+                    public boolean onLine(final String line) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public void onEnd(final IOException e) {
+                    }
+                });
+        outputMultiplexer.register(new ByteArrayInputStream(output), () -> false, executor,
+                new OutputMultiplexer.LineHandler() {
+                    @Override
+                    public boolean onLine(final String line) {
+                        return true;
+                    }
+
+                    @Override
+                    public void onEnd(final IOException e) {
+                        fastEnded.countDown();
+                    }
+                });
+
+        // THEN
+        try {
+            assertTrue(fastEnded.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
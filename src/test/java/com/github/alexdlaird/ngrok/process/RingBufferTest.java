@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingBufferTest {
+    @Test
+    public void testAdd() {
+        // GIVEN
+        final RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+
+        // WHEN
+        ringBuffer.add(1);
+        ringBuffer.add(2);
+
+        // THEN
+        assertEquals(2, ringBuffer.size());
+        assertEquals(List.of(1, 2), ringBuffer.snapshot());
+
+        // WHEN
+        ringBuffer.add(3);
+        ringBuffer.add(4);
+        ringBuffer.add(5);
+
+        // THEN
+        assertEquals(3, ringBuffer.size());
+        assertEquals(List.of(3, 4, 5), ringBuffer.snapshot());
+    }
+
+    @Test
+    public void testSnapshotWhileAdding() throws InterruptedException {
+        // GIVEN
+        final RingBuffer<Integer> ringBuffer = new RingBuffer<>(64);
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < 1_000_000; ++i) {
+                ringBuffer.add(i);
+            }
+        });
+
+        // WHEN
+        writer.start();
+        while (writer.isAlive()) {
+            final List<Integer> snapshot = ringBuffer.snapshot();
+
+            // THEN
+            assertTrue(snapshot.size() <= 64);
+            for (int i = 1; i < snapshot.size(); ++i) {
+                assertEquals(snapshot.get(i - 1) + 1, (int) snapshot.get(i));
+            }
+        }
+        writer.join();
+
+        // THEN
+        assertEquals(64, ringBuffer.snapshot().size());
+        assertEquals(999_999, (int) ringBuffer.snapshot().get(63));
+    }
+}
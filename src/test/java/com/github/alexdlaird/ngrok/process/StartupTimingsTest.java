@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupTimingsTest {
+    @Test
+    public void testStartupTimings() throws InterruptedException {
+        // GIVEN
+        final StartupTimings startupTimings = new StartupTimings();
+
+        // WHEN
+        startupTimings.record(StartupTimings.Phase.CONFIG_VALIDATED);
+        Thread.sleep(10);
+        startupTimings.record(StartupTimings.Phase.WEB_SERVICE_STARTED);
+
+        // THEN
+        assertFalse(startupTimings.isStarted());
+        assertNull(startupTimings.getElapsed(StartupTimings.Phase.PROCESS_SPAWNED));
+        assertNull(startupTimings.getPhaseDuration(StartupTimings.Phase.PROCESS_SPAWNED));
+        final Duration configValidated = startupTimings.getElapsed(StartupTimings.Phase.CONFIG_VALIDATED);
+        final Duration webServiceStarted = startupTimings.getElapsed(StartupTimings.Phase.WEB_SERVICE_STARTED);
+        assertTrue(webServiceStarted.compareTo(configValidated) > 0);
+        assertEquals(webServiceStarted.minus(configValidated), startupTimings.getPhaseDuration(StartupTimings.Phase.WEB_SERVICE_STARTED));
+        assertEquals(webServiceStarted, startupTimings.getTotal());
+    }
+
+    @Test
+    public void testStartupTimingsRecordsFirstTimestamp() {
+        // GIVEN
+        final StartupTimings startupTimings = new StartupTimings();
+        startupTimings.record(StartupTimings.Phase.HEALTH_CONFIRMED);
+        final Duration healthConfirmed = startupTimings.getElapsed(StartupTimings.Phase.HEALTH_CONFIRMED);
+
+        // WHEN
+        startupTimings.record(StartupTimings.Phase.HEALTH_CONFIRMED);
+
+        // THEN
+        assertTrue(startupTimings.isStarted());
+        assertEquals(healthConfirmed, startupTimings.getElapsed(StartupTimings.Phase.HEALTH_CONFIRMED));
+    }
+}
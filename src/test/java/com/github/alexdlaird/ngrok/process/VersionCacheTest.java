@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.ngrok.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VersionCacheTest {
+    @Test
+    public void testVersionCache() throws IOException {
+        // GIVEN
+        final Path tempDir = Files.createTempDirectory("java-ngrok");
+        final Path ngrokPath = tempDir.resolve("ngrok");
+        Files.writeString(ngrokPath, "binary");
+        final Path cachePath = tempDir.resolve("versions.properties");
+        final VersionCache versionCache = new VersionCache(cachePath);
+        final AtomicInteger loads = new AtomicInteger();
+
+        // WHEN
+        final String version1 = versionCache.get(ngrokPath, () -> "3.0." + loads.incrementAndGet());
+        final String version2 = versionCache.get(ngrokPath, () -> "3.0." + loads.incrementAndGet());
+
+        // THEN
+        assertEquals("3.0.1", version1);
+        assertEquals("3.0.1", version2);
+        assertEquals(1, loads.get());
+        final Properties properties = new Properties();
+        try (final InputStream in = Files.newInputStream(cachePath)) {
+            properties.load(in);
+        }
+        assertEquals("3.0.1", properties.getProperty(VersionCache.fingerprint(ngrokPath)));
+
+        // WHEN
+        Files.writeString(ngrokPath, "updated binary");
+        final String version3 = versionCache.get(ngrokPath, () -> "3.0." + loads.incrementAndGet());
+
+        // THEN
+        assertEquals("3.0.2", version3);
+        assertEquals(2, loads.get());
+    }
+}